@@ -1,10 +1,12 @@
 package de.sjwimmer.ta4jchart.chartbuilder;
 
 import org.jfree.chart.JFreeChart;
+import org.ta4j.core.Bar;
 import org.ta4j.core.BarSeries;
 import com.limemojito.trading.model.bar.Bar.Period;
 // Potentially add other methods if TacChart needs more generic access
 import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowOHLCDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.listener.DomainAxisRangeChangeHandler;
 
 
 public interface IChartBuilderAdapter {
@@ -17,4 +19,23 @@ public interface IChartBuilderAdapter {
     default DynamicWindowOHLCDataset getDynamicOHLCDataset() {
         return null;
     }
+
+    // Handler that keeps the dynamic datasets in sync with the domain axis, if the chart has one
+    default DomainAxisRangeChangeHandler getAxisRangeChangeHandler() {
+        return null;
+    }
+
+    // Live updates of the current series; may be called from any thread
+    default void addBar(Bar bar) {
+        throw new UnsupportedOperationException("Live bar updates are not supported by " + getClass().getSimpleName());
+    }
+
+    default void updateLastBar(Bar bar) {
+        throw new UnsupportedOperationException("Live bar updates are not supported by " + getClass().getSimpleName());
+    }
+
+    // Hides or shows an indicator subplot; must be called on the event dispatch thread
+    default void setSubplotVisible(String indicatorName, boolean visible) {
+        throw new UnsupportedOperationException("Hiding subplots is not supported by " + getClass().getSimpleName());
+    }
 }
@@ -4,17 +4,27 @@ import org.jfree.chart.axis.AxisLocation;
 import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.event.RendererChangeEvent;
+import org.jfree.chart.plot.CrosshairState;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYItemRenderer;
+import org.jfree.data.general.DatasetChangeEvent;
 import org.jfree.data.xy.XYDataset;
 
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+
 /**
  * Optimized XY plot that extends XYPlot with custom axis location management.
  * Provides consistent axis location handling for main domain and range axes.
+ * Can render its datasets from cached tiles, so a horizontal pan only renders the newly exposed bars.
  */
 public class OptimizedXYPlot extends XYPlot {
     private AxisLocation mainDomainAxisLocation;
     private AxisLocation mainRangeAxisLocation;
+    private PlotTileCache tileCache; // null: the datasets are rendered item by item on every draw
 
     /**
      * Constructs an OptimizedXYPlot with the specified dataset, axes, and renderer.
@@ -74,4 +84,67 @@ public class OptimizedXYPlot extends XYPlot {
         }
         super.setRangeAxisLocation(index, location, notify);
     }
+
+    /**
+     * Enables or disables rendering the datasets from cached tiles of the index-based domain axis.
+     * Tiled rendering does not collect chart entities for the items.
+     * @param tiledRendering whether to render from tiles
+     */
+    public void setTiledRendering(boolean tiledRendering) {
+        this.tileCache = tiledRendering ? new PlotTileCache(this) : null;
+        fireChangeEvent();
+    }
+
+    /**
+     * Whether the datasets are rendered from cached tiles.
+     * @return true if tiled rendering is enabled
+     */
+    public boolean isTiledRendering() {
+        return tileCache != null;
+    }
+
+    PlotTileCache getTileCache() {
+        return tileCache;
+    }
+
+    /**
+     * Renders a dataset from cached tiles if tiled rendering is enabled, otherwise item by item.
+     * @param g2 the graphics device
+     * @param dataArea the region in which the data is to be drawn
+     * @param index the dataset index
+     * @param info an optional object for collection dimension information
+     * @param crosshairState collects crosshair information
+     * @return whether any data was found in the dataset
+     */
+    @Override
+    public boolean render(Graphics2D g2, Rectangle2D dataArea, int index, PlotRenderingInfo info, CrosshairState crosshairState) {
+        if (tileCache == null || getOrientation() != PlotOrientation.VERTICAL) {
+            return super.render(g2, dataArea, index, info, crosshairState);
+        }
+        return tileCache.render(g2, dataArea, index);
+    }
+
+    /**
+     * Drops the cached tiles of a dataset that cannot tell whether its content changed.
+     * @param event information about the event
+     */
+    @Override
+    public void datasetChanged(DatasetChangeEvent event) {
+        if (tileCache != null && event.getDataset() instanceof XYDataset) {
+            tileCache.datasetChanged((XYDataset) event.getDataset());
+        }
+        super.datasetChanged(event);
+    }
+
+    /**
+     * Drops the cached tiles, since a renderer may draw its items differently now.
+     * @param event information about the event
+     */
+    @Override
+    public void rendererChanged(RendererChangeEvent event) {
+        if (tileCache != null) {
+            tileCache.clear();
+        }
+        super.rendererChanged(event);
+    }
 }
@@ -1,14 +1,39 @@
 package de.sjwimmer.ta4jchart.chartbuilder;
 
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.EntityCollection;
 import org.jfree.chart.labels.XYToolTipGenerator;
+import org.jfree.chart.plot.CrosshairState;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.xy.XYDataset;
+
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
 
 /**
  * Optimized XY line and shape renderer that extends XYLineAndShapeRenderer with custom tooltip handling.
  * Provides conditional tooltip generation based on manual tooltip flag.
+ * <p>
+ * The line of a series is collected into one polyline during the first pass and stroked once when the
+ * pass ends. Consecutive points beyond the same edge of the data area are left out of the polyline, and
+ * a missing (NaN) value starts a new part of it. The shapes are drawn in the second pass, only if the
+ * visible points are at least {@link #getMinShapeSpacing()} pixels apart on average and only for points
+ * inside the data area; shapes of denser series would merge into a thick line anyway. Chart entities are
+ * only collected if tooltips or URLs are configured. Drawing a series costs O(visible points) and
+ * allocates no objects per item, apart from the entities.
  */
 public class OptmizedXYLineAndShapeRenderer extends XYLineAndShapeRenderer {
+    public static final double DEFAULT_MIN_SHAPE_SPACING = 8.0; // pixels
+    private static final int OUT_LEFT = 1, OUT_RIGHT = 2, OUT_TOP = 4, OUT_BOTTOM = 8;
+
     private boolean manualTooltip;
+    private double minShapeSpacing = DEFAULT_MIN_SHAPE_SPACING;
 
     /**
      * Constructs an OptmizedXYLineAndShapeRenderer with specified line and shape visibility.
@@ -19,6 +44,83 @@ public class OptmizedXYLineAndShapeRenderer extends XYLineAndShapeRenderer {
         super(lines, shapes);
     }
 
+    /**
+     * Gets the minimum average distance between the visible points for their shapes to be drawn.
+     * @return the spacing in pixels
+     */
+    public double getMinShapeSpacing() {
+        return minShapeSpacing;
+    }
+
+    /**
+     * Sets the minimum average distance between the visible points for their shapes to be drawn;
+     * 0 always draws the shapes.
+     * @param minShapeSpacing the spacing in pixels
+     * @throws IllegalArgumentException if the spacing is negative
+     */
+    public void setMinShapeSpacing(double minShapeSpacing) {
+        if (minShapeSpacing < 0) {
+            throw new IllegalArgumentException("Shape spacing must not be negative: " + minShapeSpacing);
+        }
+        this.minShapeSpacing = minShapeSpacing;
+        fireChangeEvent();
+    }
+
+    /**
+     * Initialises the renderer for a plot drawing, with a state that collects the lines into polylines.
+     * @param g2 the graphics device
+     * @param dataArea the area inside the axes
+     * @param plot the plot
+     * @param dataset the dataset
+     * @param info the plot rendering info, may be null
+     * @return the renderer state
+     */
+    @Override
+    public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea, XYPlot plot, XYDataset dataset, PlotRenderingInfo info) {
+        if (plot.getOrientation() != PlotOrientation.VERTICAL) {
+            return super.initialise(g2, dataArea, plot, dataset, info);
+        }
+        return new PolylineState(g2, dataArea, info);
+    }
+
+    /**
+     * Adds the point of an item to the polyline of its series in the first pass, and draws its shape in
+     * the second pass if the series is sparse enough.
+     */
+    @Override
+    public void drawItem(Graphics2D g2, XYItemRendererState state, Rectangle2D dataArea, PlotRenderingInfo info,
+                         XYPlot plot, ValueAxis domainAxis, ValueAxis rangeAxis, XYDataset dataset,
+                         int series, int item, CrosshairState crosshairState, int pass) {
+        if (!(state instanceof PolylineState)) {
+            super.drawItem(g2, state, dataArea, info, plot, domainAxis, rangeAxis, dataset, series, item, crosshairState, pass);
+            return;
+        }
+        final PolylineState polyline = (PolylineState) state;
+        if (!polyline.seriesVisible) {
+            return;
+        }
+        final double y = dataset.getYValue(series, item);
+        if (Double.isNaN(y)) {
+            polyline.gap();
+            return;
+        }
+        final double xx = domainAxis.valueToJava2D(dataset.getXValue(series, item), dataArea, plot.getDomainAxisEdge());
+        final double yy = rangeAxis.valueToJava2D(y, dataArea, plot.getRangeAxisEdge());
+        if (isLinePass(pass)) {
+            if (polyline.linesVisible) {
+                polyline.add(xx, yy);
+            }
+        } else if (isItemPass(pass)) {
+            if (polyline.shapesVisible && polyline.outcode(xx, yy) == 0) {
+                polyline.drawShape(xx, yy);
+            }
+            final EntityCollection entities = polyline.entities;
+            if (entities != null) {
+                addEntity(entities, null, dataset, series, item, xx, yy);
+            }
+        }
+    }
+
     /**
      * Gets the tooltip generator for the specified series and item.
      * Returns manual tooltip generator if set, otherwise returns default tooltip generator.
@@ -44,4 +146,122 @@ public class OptmizedXYLineAndShapeRenderer extends XYLineAndShapeRenderer {
         manualTooltip = true;
         super.setSeriesToolTipGenerator(series, generator);
     }
+
+    /**
+     * Renderer state that collects the line of a series pass into one polyline, and decides once per
+     * pass how the series is drawn.
+     */
+    private final class PolylineState extends XYItemRendererState {
+        private final Graphics2D g2;
+        private final Rectangle2D dataArea;
+        private final EntityCollection entities;
+        private final Path2D line = new Path2D.Double();
+
+        private boolean seriesVisible;
+        private boolean linesVisible;
+        private boolean shapesVisible;
+        private Shape shape;
+        private boolean shapeFilled;
+        private Paint fillPaint;
+        private Paint outlinePaint;
+        private Stroke outlineStroke;
+
+        private boolean started; // whether the polyline has a current point
+        private boolean pending; // whether the last point was left out beyond an edge
+        private double pendingX;
+        private double pendingY;
+        private int lastOutcode;
+
+        private PolylineState(Graphics2D g2, Rectangle2D dataArea, PlotRenderingInfo info) {
+            super(info);
+            this.g2 = g2;
+            this.dataArea = dataArea;
+            this.entities = (getDefaultToolTipGenerator() != null || manualTooltip || getURLGenerator() != null)
+                    ? getEntityCollection() : null;
+        }
+
+        @Override
+        public void startSeriesPass(XYDataset dataset, int series, int firstItem, int lastItem, int pass, int passCount) {
+            super.startSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+            line.reset();
+            started = false;
+            pending = false;
+            seriesVisible = isSeriesVisible(series);
+            linesVisible = getItemLineVisible(series, firstItem);
+            final double spacing = dataArea.getWidth() / Math.max(1, lastItem - firstItem + 1);
+            shapesVisible = getItemShapeVisible(series, firstItem) && spacing >= minShapeSpacing;
+            shape = lookupSeriesShape(series);
+            shapeFilled = getItemShapeFilled(series, firstItem);
+            fillPaint = getUseFillPaint() ? lookupSeriesFillPaint(series) : lookupSeriesPaint(series);
+            outlinePaint = getUseOutlinePaint() ? lookupSeriesOutlinePaint(series) : lookupSeriesPaint(series);
+            outlineStroke = lookupSeriesOutlineStroke(series);
+        }
+
+        @Override
+        public void endSeriesPass(XYDataset dataset, int series, int firstItem, int lastItem, int pass, int passCount) {
+            super.endSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+            if (isLinePass(pass) && seriesVisible && linesVisible) {
+                g2.setPaint(lookupSeriesPaint(series));
+                g2.setStroke(lookupSeriesStroke(series));
+                g2.draw(line);
+            }
+        }
+
+        /** Adds a point to the polyline, leaving out points that only continue beyond the same edge. */
+        private void add(double xx, double yy) {
+            final int outcode = outcode(xx, yy);
+            if (started && (outcode & lastOutcode) != 0) {
+                pending = true; // the segment to this point is invisible
+                pendingX = xx;
+                pendingY = yy;
+            } else {
+                if (!started) {
+                    line.moveTo(xx, yy);
+                    started = true;
+                } else {
+                    if (pending) {
+                        line.moveTo(pendingX, pendingY);
+                    }
+                    line.lineTo(xx, yy);
+                }
+                pending = false;
+            }
+            lastOutcode = outcode;
+        }
+
+        /** Ends the current part of the polyline at a missing value. */
+        private void gap() {
+            started = false;
+            pending = false;
+        }
+
+        private int outcode(double xx, double yy) {
+            int outcode = 0;
+            if (xx < dataArea.getMinX()) {
+                outcode |= OUT_LEFT;
+            } else if (xx > dataArea.getMaxX()) {
+                outcode |= OUT_RIGHT;
+            }
+            if (yy < dataArea.getMinY()) {
+                outcode |= OUT_TOP;
+            } else if (yy > dataArea.getMaxY()) {
+                outcode |= OUT_BOTTOM;
+            }
+            return outcode;
+        }
+
+        private void drawShape(double xx, double yy) {
+            g2.translate(xx, yy);
+            if (shapeFilled) {
+                g2.setPaint(fillPaint);
+                g2.fill(shape);
+            }
+            if (getDrawOutlines()) {
+                g2.setPaint(outlinePaint);
+                g2.setStroke(outlineStroke);
+                g2.draw(shape);
+            }
+            g2.translate(-xx, -yy);
+        }
+    }
 }
@@ -0,0 +1,294 @@
+package de.sjwimmer.ta4jchart.chartbuilder;
+
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IDynamicDataset;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.SeriesRenderingOrder;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.RendererUtils;
+import org.jfree.chart.renderer.xy.XYItemRenderer;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
+import org.jfree.data.Range;
+import org.jfree.data.general.DatasetUtils;
+import org.jfree.data.xy.XYDataset;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Renders the datasets of a plot in tiles of a fixed width along the index-based domain axis and keeps
+ * the tiles in a least recently used cache. A tile covers the same bars as long as the zoom level stays
+ * the same, so panning only renders the tiles that come into view; the others are drawn at their new
+ * offset. The tiles of a dataset are dropped when the zoom level, the range of its range axis (e.g.
+ * after an automatic range adjustment), the plot height, the antialiasing or the content of the dataset
+ * changes.
+ * <p>
+ * A tile is only cached when the dataset has loaded items on both sides of it, so the edges of a dynamic
+ * window, which may still miss some bars, are rendered again on every draw. Tiles do not collect chart
+ * entities. Must be used on the event dispatch thread.
+ */
+class PlotTileCache {
+
+    static final int TILE_WIDTH = 256; // pixels
+    private static final long MAX_CACHED_PIXELS = 8L * 1024 * 1024; // about 32 MB of ARGB tiles per plot
+    private static final double SAME_SCALE_TOLERANCE = 1e-9; // pans shift both bounds, which may change the length by rounding
+
+    private final XYPlot plot;
+    private final Map<Long, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, View> views = new HashMap<>();
+    private final ArrayDeque<BufferedImage> spareImages = new ArrayDeque<>();
+    private long cachedPixels = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /** What the tiles of one dataset were rendered for; a tile is only reused for the same view. */
+    private static final class View {
+        final double unitsPerTile;
+        final int imageWidth;
+        final int imageHeight;
+        final double scaleX;
+        final double scaleY;
+        final double rangeLower;
+        final double rangeUpper;
+        final long contentStamp;
+        final Object antialiasing; // tiles drawn while interacting are not reused in full quality
+
+        View(double unitsPerTile, int imageWidth, int imageHeight, double scaleX, double scaleY,
+             double rangeLower, double rangeUpper, long contentStamp, Object antialiasing) {
+            this.unitsPerTile = unitsPerTile;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.rangeLower = rangeLower;
+            this.rangeUpper = rangeUpper;
+            this.contentStamp = contentStamp;
+            this.antialiasing = antialiasing;
+        }
+
+        boolean sameAs(View other) {
+            return Math.abs(unitsPerTile - other.unitsPerTile) <= unitsPerTile * SAME_SCALE_TOLERANCE
+                    && imageWidth == other.imageWidth && imageHeight == other.imageHeight
+                    && scaleX == other.scaleX && scaleY == other.scaleY
+                    && rangeLower == other.rangeLower && rangeUpper == other.rangeUpper
+                    && contentStamp == other.contentStamp && Objects.equals(antialiasing, other.antialiasing);
+        }
+    }
+
+    PlotTileCache(XYPlot plot) {
+        this.plot = plot;
+    }
+
+    /**
+     * Renders a dataset of the plot from tiles, rendering the tiles that are not cached.
+     * @param g2 the graphics device, clipped to the data area
+     * @param dataArea the data area of the plot
+     * @param index the dataset index
+     * @return whether the dataset has data, like {@link XYPlot#render}
+     */
+    boolean render(Graphics2D g2, Rectangle2D dataArea, int index) {
+        final XYDataset dataset = plot.getDataset(index);
+        if (DatasetUtils.isEmptyOrNull(dataset)) {
+            return false;
+        }
+        final ValueAxis domainAxis = plot.getDomainAxisForDataset(index);
+        final ValueAxis rangeAxis = plot.getRangeAxisForDataset(index);
+        final XYItemRenderer renderer = (plot.getRenderer(index) != null) ? plot.getRenderer(index) : plot.getRenderer();
+        if (domainAxis == null || rangeAxis == null || renderer == null || dataArea.getWidth() < 1 || dataArea.getHeight() < 1) {
+            return true;
+        }
+
+        final double unitsPerPixel = domainAxis.getRange().getLength() / dataArea.getWidth();
+        final AffineTransform transform = g2.getTransform(); // render the tiles at the device resolution, e.g. on HiDPI screens
+        final double scaleX = transform.getScaleX();
+        final double scaleY = transform.getScaleY();
+        final View view = currentView(index, new View(unitsPerPixel * TILE_WIDTH,
+                (int) Math.ceil(TILE_WIDTH * scaleX), (int) Math.ceil(dataArea.getHeight() * scaleY), scaleX, scaleY,
+                rangeAxis.getLowerBound(), rangeAxis.getUpperBound(), contentStamp(dataset),
+                g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING)));
+
+        final double lower = domainAxis.getLowerBound();
+        final double origin = dataArea.getX() - lower / unitsPerPixel; // where the tile starting at domain value 0 is drawn
+        final long firstTile = (long) Math.floor(lower / view.unitsPerTile);
+        final long lastTile = (long) Math.floor(domainAxis.getUpperBound() / view.unitsPerTile);
+        final int y = (int) Math.round(dataArea.getY());
+        final int height = (int) Math.round(dataArea.getHeight());
+        for (long tile = firstTile; tile <= lastTile; tile++) {
+            final int x = (int) Math.round(origin + tile * (double) TILE_WIDTH);
+            final double tileStart = tile * view.unitsPerTile;
+            final Long key = key(index, tile);
+            BufferedImage image = tiles.get(key);
+            if (image != null) {
+                hits++;
+            } else {
+                misses++;
+                if (!covers(dataset, tileStart, tileStart + view.unitsPerTile)) {
+                    final Graphics2D tileG2 = (Graphics2D) g2.create();
+                    tileG2.translate(x, y);
+                    tileG2.clip(new Rectangle(0, 0, TILE_WIDTH, height));
+                    drawTile(tileG2, dataset, renderer, rangeAxis, tileStart, view.unitsPerTile, height);
+                    tileG2.dispose();
+                    continue;
+                }
+                image = createImage(view);
+                final Graphics2D tileG2 = image.createGraphics();
+                tileG2.setRenderingHints(g2.getRenderingHints());
+                tileG2.scale(view.scaleX, view.scaleY);
+                drawTile(tileG2, dataset, renderer, rangeAxis, tileStart, view.unitsPerTile, height);
+                tileG2.dispose();
+                put(key, image);
+            }
+            g2.drawImage(image, x, y, TILE_WIDTH, height, null);
+        }
+        return true;
+    }
+
+    /** Drops the tiles of a dataset whose content changed without a new content stamp. */
+    void datasetChanged(XYDataset dataset) {
+        if (contentStamp(dataset) == -1) {
+            final int index = plot.indexOf(dataset);
+            if (index >= 0) {
+                evict(index);
+                views.remove(index);
+            }
+        }
+    }
+
+    /** Drops all tiles, e.g. because a renderer changed its appearance. */
+    void clear() {
+        tiles.clear();
+        views.clear();
+        spareImages.clear();
+        cachedPixels = 0;
+    }
+
+    /** @return how many tiles were drawn from the cache */
+    long getHits() {
+        return hits;
+    }
+
+    /** @return how many tiles had to be rendered */
+    long getMisses() {
+        return misses;
+    }
+
+    /** @return the view to render the dataset for; drops its tiles if they were rendered for another view */
+    private View currentView(int index, View view) {
+        final View previous = views.get(index);
+        if (previous != null && previous.sameAs(view)) {
+            return previous; // keeps the tile boundaries of the cached tiles
+        }
+        evict(index);
+        views.put(index, view);
+        return view;
+    }
+
+    /**
+     * Renders the items of a tile the way {@link XYPlot#render} renders the visible items, with a domain
+     * axis spanning just the tile.
+     */
+    private void drawTile(Graphics2D g2, XYDataset dataset, XYItemRenderer renderer, ValueAxis rangeAxis,
+                          double tileStart, double unitsPerTile, int height) {
+        final Rectangle2D tileArea = new Rectangle2D.Double(0, 0, TILE_WIDTH, height);
+        final NumberAxis tileAxis = new NumberAxis();
+        tileAxis.setRange(new Range(tileStart, tileStart + unitsPerTile), false, false);
+
+        final XYItemRendererState state = renderer.initialise(g2, tileArea, plot, dataset, null);
+        final int passCount = renderer.getPassCount();
+        final int seriesCount = dataset.getSeriesCount();
+        final boolean reverse = plot.getSeriesRenderingOrder() == SeriesRenderingOrder.REVERSE;
+        for (int pass = 0; pass < passCount; pass++) {
+            for (int i = 0; i < seriesCount; i++) {
+                final int series = reverse ? seriesCount - 1 - i : i;
+                final int itemCount = dataset.getItemCount(series);
+                if (itemCount == 0) {
+                    continue;
+                }
+                // One item on each side, so lines and candles crossing the tile border are drawn as well
+                final int[] itemBounds = RendererUtils.findLiveItems(dataset, series, tileStart, tileStart + unitsPerTile);
+                final int firstItem = Math.max(itemBounds[0] - 1, 0);
+                final int lastItem = Math.min(itemBounds[1] + 1, itemCount - 1);
+                state.startSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+                for (int item = firstItem; item <= lastItem; item++) {
+                    renderer.drawItem(g2, state, tileArea, null, plot, tileAxis, rangeAxis, dataset, series, item, null, pass);
+                }
+                state.endSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+            }
+        }
+    }
+
+    /** @return whether every series of the dataset has items before and after the given domain range */
+    private static boolean covers(XYDataset dataset, double start, double end) {
+        for (int series = 0; series < dataset.getSeriesCount(); series++) {
+            final int itemCount = dataset.getItemCount(series);
+            if (itemCount == 0 || !(dataset.getXValue(series, 0) < start) || !(dataset.getXValue(series, itemCount - 1) > end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long contentStamp(XYDataset dataset) {
+        return (dataset instanceof IDynamicDataset) ? ((IDynamicDataset) dataset).getContentStamp() : -1;
+    }
+
+    private static Long key(int index, long tile) {
+        return ((long) index << 32) | (tile & 0xFFFFFFFFL);
+    }
+
+    private BufferedImage createImage(View view) {
+        while (!spareImages.isEmpty()) {
+            final BufferedImage spare = spareImages.poll();
+            if (spare.getWidth() == view.imageWidth && spare.getHeight() == view.imageHeight) {
+                final Graphics2D g2 = spare.createGraphics();
+                g2.setComposite(AlphaComposite.Clear);
+                g2.fillRect(0, 0, spare.getWidth(), spare.getHeight());
+                g2.dispose();
+                return spare;
+            }
+        }
+        return new BufferedImage(view.imageWidth, view.imageHeight, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private void put(Long key, BufferedImage image) {
+        tiles.put(key, image);
+        cachedPixels += pixels(image);
+        final Iterator<BufferedImage> eldest = tiles.values().iterator();
+        while (cachedPixels > MAX_CACHED_PIXELS && eldest.hasNext()) {
+            release(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    private void evict(int index) {
+        final Iterator<Map.Entry<Long, BufferedImage>> entries = tiles.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<Long, BufferedImage> entry = entries.next();
+            if ((int) (entry.getKey() >> 32) == index) {
+                release(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    /** Keeps a dropped tile image for the next tile, so a chart whose view changes on every draw does not allocate new images. */
+    private void release(BufferedImage image) {
+        cachedPixels -= pixels(image);
+        if (spareImages.size() < MAX_CACHED_PIXELS / Math.max(1, pixels(image))) {
+            spareImages.add(image);
+        }
+    }
+
+    private static long pixels(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight();
+    }
+}
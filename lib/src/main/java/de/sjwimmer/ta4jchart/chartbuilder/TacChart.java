@@ -2,8 +2,11 @@ package de.sjwimmer.ta4jchart.chartbuilder;
 
 import de.sjwimmer.ta4jchart.chartbuilder.axis.BarIndexDateAxis;
 import de.sjwimmer.ta4jchart.chartbuilder.crosshair.TacChartMouseHandler;
+import de.sjwimmer.ta4jchart.chartbuilder.listener.DomainAxisRangeChangeHandler;
+import de.sjwimmer.ta4jchart.chartbuilder.listener.InteractionQuality;
 import de.sjwimmer.ta4jchart.chartbuilder.data.DataPanel;
 import de.sjwimmer.ta4jchart.chartbuilder.data.TacDataTableModel;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IDynamicDataset;
 import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacAutoRangeButton;
 import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacShowBuySellSignals;
 import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacShowDataButton;
@@ -12,10 +15,14 @@ import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacStickyCrossHairButton;
 import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacTimeframeButtons;
 import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacZoomButtons;
 import org.jfree.chart.ChartPanel;
+import org.jfree.chart.ChartRenderingInfo;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.ChartProgressEvent;
 import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.XYPlot;
+import org.ta4j.core.Bar;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.TradingRecord;
 import de.sjwimmer.ta4jchart.chartbuilder.utils.TacChartUtils;
@@ -26,6 +33,8 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
 
 import de.sjwimmer.ta4jchart.chartbuilder.mouse.PanAndShiftZoomHandler;
 
@@ -33,12 +42,14 @@ public class TacChart extends JPanel {
 
     private static final double KEYBOARD_PAN_PERCENTAGE = 0.1; // Scroll by 10% of the visible range
     private static final double KEYBOARD_PAGE_PAN_PERCENTAGE = 0.9; // Scroll by 90% of the visible range
+    private static final double MIN_VISIBLE_SUBPLOT_HEIGHT = 3; // Lower subplots are treated as collapsed
     private final ChartPanel chartPanel; // Make chartPanel a field to access it in handlePanning
     private final IChartBuilderAdapter chartBuilder;
     private final TacAutoRangeButton tacAutoRangeButton; // Store the button instance
     private final BarSeries barSeries; // Store the initial/current bar series for addNotify
     private final TacShowBuySellSignals tacShowBuySellSignals; // Store the signals button instance
     private TacChartMouseHandler mouseHandler; // Store the mouse handler instance
+    private final InteractionQuality interactionQuality; // Lowers the rendering quality while the chart is panned or zoomed
 
     private boolean initialDomainRangeApplied = false;
     
@@ -48,7 +59,8 @@ public class TacChart extends JPanel {
         this.chartBuilder = chartBuilder;
         this.barSeries = barSeries;
 
-        // Create ChartPanel and override addNotify to request focus when it becomes displayable
+        // Create ChartPanel and override addNotify to request focus when it becomes displayable.
+        // The crosshair is an overlay painted on top of the panel's chart image.
         this.chartPanel = new ChartPanel(chart) {
             @Override
             public void addNotify() {
@@ -68,6 +80,7 @@ public class TacChart extends JPanel {
             }
         };
         chartPanel.setFocusable(true); // Essential for receiving KeyEvents
+        this.interactionQuality = new InteractionQuality(chartPanel);
         
         // Add ComponentListener to ChartPanel to set initial zoom when size is known
         chartPanel.addComponentListener(new ComponentAdapter() {
@@ -92,12 +105,35 @@ public class TacChart extends JPanel {
         });
 
 
+        // The dynamic datasets decide how much detail to load from the pixel width of the data area,
+        // which is only known once the chart has been laid out; report it after every draw.
+        final DomainAxisRangeChangeHandler axisRangeChangeHandler = (chartBuilder != null) ? chartBuilder.getAxisRangeChangeHandler() : null;
+        if (axisRangeChangeHandler != null) {
+            chart.addProgressListener(event -> {
+                if (event.getType() == ChartProgressEvent.DRAWING_FINISHED) {
+                    final double dataAreaWidth = chartPanel.getScreenDataArea().getWidth();
+                    if (Math.abs(dataAreaWidth - axisRangeChangeHandler.getDataAreaWidth()) >= 1.0) {
+                        SwingUtilities.invokeLater(() -> axisRangeChangeHandler.setDataAreaWidth(dataAreaWidth));
+                    }
+                    SwingUtilities.invokeLater(() -> updateSubplotVisibility(axisRangeChangeHandler));
+                }
+            });
+        }
+
         final JToolBar toolBar = new JToolBar("Action");
 
         add(toolBar, BorderLayout.NORTH);
-        add(new JScrollPane(chartPanel), BorderLayout.CENTER);
+        final JScrollPane scrollPane = new JScrollPane(chartPanel);
+        if (axisRangeChangeHandler != null) {
+            // Scrolling reuses the drawn chart, so check which subplots came into view here as well
+            scrollPane.getViewport().addChangeListener(e -> updateSubplotVisibility(axisRangeChangeHandler));
+        }
+        add(scrollPane, BorderLayout.CENTER);
 
         mouseHandler = new TacChartMouseHandler(chartPanel);
+        if (axisRangeChangeHandler != null) {
+            mouseHandler.setFrameScheduler(axisRangeChangeHandler.getFrameScheduler());
+        }
         toolBar.add(new TacStickyCrossHairButton(mouseHandler));
         tacAutoRangeButton = new TacAutoRangeButton(chart);
         toolBar.add(tacAutoRangeButton);
@@ -113,7 +149,8 @@ public class TacChart extends JPanel {
         new TacZoomButtons(chartPanel, tacAutoRangeButton).addToToolBar(toolBar);
 
         // Add custom handler for pan (left-click drag) and shift-zoom (Shift + left-click drag)
-        PanAndShiftZoomHandler panAndShiftZoomHandler = new PanAndShiftZoomHandler(chartPanel, tacAutoRangeButton);
+        PanAndShiftZoomHandler panAndShiftZoomHandler = new PanAndShiftZoomHandler(chartPanel, tacAutoRangeButton, axisRangeChangeHandler);
+        panAndShiftZoomHandler.setInteractionQuality(interactionQuality);
         chartPanel.addMouseListener(panAndShiftZoomHandler);
         chartPanel.addMouseMotionListener(panAndShiftZoomHandler);
 
@@ -136,9 +173,29 @@ public class TacChart extends JPanel {
                     domainAxisInstance = xyPlot.getDomainAxis();
                 }
 
+                if (domainAxisInstance != null && isPanKey(e.getKeyCode())) {
+                    interactionQuality.interact();
+                }
                 if (domainAxisInstance != null) {
-                    handlePanning(e, domainAxisInstance);
+                    final ValueAxis axis = domainAxisInstance;
+                    if (axisRangeChangeHandler != null) {
+                        axisRangeChangeHandler.runBatch(() -> handlePanning(e, axis)); // one chart update per key
+                    } else {
+                        handlePanning(e, axis);
+                    }
+                }
+            }
+
+            private boolean isPanKey(int keyCode) {
+                return keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_RIGHT
+                        || keyCode == KeyEvent.VK_PAGE_UP || keyCode == KeyEvent.VK_PAGE_DOWN;
+            }
+
+            private void pan(ValueAxis domainAxis, double percent) {
+                if (axisRangeChangeHandler != null) {
+                    axisRangeChangeHandler.recordPan(percent * domainAxis.getRange().getLength());
                 }
+                domainAxis.pan(percent);
             }
 
             private void handlePanning(KeyEvent e, ValueAxis domainAxis) {
@@ -149,19 +206,19 @@ public class TacChart extends JPanel {
 
                 int keyCode = e.getKeyCode();
                 if (keyCode == KeyEvent.VK_LEFT) {
-                    domainAxis.pan(-KEYBOARD_PAN_PERCENTAGE);
+                    pan(domainAxis, -KEYBOARD_PAN_PERCENTAGE);
                     panned = true;
                     e.consume();
                 } else if (keyCode == KeyEvent.VK_RIGHT) {
-                    domainAxis.pan(KEYBOARD_PAN_PERCENTAGE);
+                    pan(domainAxis, KEYBOARD_PAN_PERCENTAGE);
                     panned = true;
                     e.consume();
                 } else if (keyCode == KeyEvent.VK_PAGE_UP) {
-                    domainAxis.pan(-KEYBOARD_PAGE_PAN_PERCENTAGE);
+                    pan(domainAxis, -KEYBOARD_PAGE_PAN_PERCENTAGE);
                     panned = true;
                     e.consume();
                 } else if (keyCode == KeyEvent.VK_PAGE_DOWN) {
-                    domainAxis.pan(KEYBOARD_PAGE_PAN_PERCENTAGE);
+                    pan(domainAxis, KEYBOARD_PAGE_PAN_PERCENTAGE);
                     panned = true;
                     e.consume();
                 }
@@ -174,6 +231,75 @@ public class TacChart extends JPanel {
         });
     }
     
+    /**
+     * Appends a live bar to the series shown by the chart. May be called from any thread, e.g. a
+     * market-data thread; updates are coalesced and applied on the EDT.
+     * @param bar the new bar
+     * @throws UnsupportedOperationException if the chart was not built by a dynamic chart builder
+     */
+    public void addBar(Bar bar) {
+        chartBuilder.addBar(bar);
+    }
+
+    /**
+     * Replaces the last (in-progress) bar of the series shown by the chart. May be called from any
+     * thread, like {@link #addBar(Bar)}.
+     * @param bar the bar replacing the last bar
+     * @throws UnsupportedOperationException if the chart was not built by a dynamic chart builder
+     */
+    public void updateLastBar(Bar bar) {
+        chartBuilder.updateLastBar(bar);
+    }
+
+    /**
+     * Tells the axis handler which subplots can be seen, from where they were last drawn: a subplot
+     * collapsed to a few pixels or scrolled out of the scroll pane is hidden, so its datasets skip
+     * window updates until it shows up again. The main plot is always visible.
+     */
+    private void updateSubplotVisibility(DomainAxisRangeChangeHandler axisRangeChangeHandler) {
+        final JFreeChart currentChart = chartPanel.getChart();
+        final ChartRenderingInfo info = chartPanel.getChartRenderingInfo();
+        if (currentChart == null || info == null || !(currentChart.getPlot() instanceof CombinedDomainXYPlot)) {
+            return;
+        }
+        final List<?> subplots = ((CombinedDomainXYPlot) currentChart.getPlot()).getSubplots();
+        final PlotRenderingInfo plotInfo = info.getPlotInfo();
+        if (plotInfo.getSubplotCount() != subplots.size()) {
+            return; // not drawn since the subplots changed
+        }
+        final Rectangle visibleArea = chartPanel.getVisibleRect();
+        for (int i = 1; i < subplots.size(); i++) {
+            final Rectangle2D dataArea = chartPanel.scale(plotInfo.getSubplotInfo(i).getDataArea());
+            final boolean visible = dataArea.getHeight() >= MIN_VISIBLE_SUBPLOT_HEIGHT && dataArea.intersects(visibleArea);
+            final XYPlot subplot = (XYPlot) subplots.get(i);
+            for (int d = 0; d < subplot.getDatasetCount(); d++) {
+                if (subplot.getDataset(d) instanceof IDynamicDataset) {
+                    axisRangeChangeHandler.setDatasetVisible((IDynamicDataset) subplot.getDataset(d), visible);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the switch to the lower rendering quality used while the chart is panned or zoomed, with
+     * the draw times of both qualities
+     */
+    public InteractionQuality getInteractionQuality() {
+        return interactionQuality;
+    }
+
+    /**
+     * Hides or shows the subplot of an indicator. A hidden subplot takes no space and its datasets
+     * are not updated while the chart is panned or zoomed; when shown again, they catch up with
+     * the visible range in one step. Must be called on the event dispatch thread.
+     * @param indicatorName the name of the indicator shown in the subplot
+     * @param visible whether to show the subplot
+     * @throws UnsupportedOperationException if the chart was not built by a dynamic chart builder
+     */
+    public void setSubplotVisible(String indicatorName, boolean visible) {
+        chartBuilder.setSubplotVisible(indicatorName, visible);
+    }
+
     /**
      * Called by TacTimeframeButtons to refresh UI elements that depend on chart data,
      * like buy/sell signals, after a timeframe switch.
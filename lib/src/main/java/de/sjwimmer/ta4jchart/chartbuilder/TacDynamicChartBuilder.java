@@ -3,28 +3,49 @@ package de.sjwimmer.ta4jchart.chartbuilder;
 import de.sjwimmer.ta4jchart.chartbuilder.axis.BarIndexDateAxis;
 import de.sjwimmer.ta4jchart.chartbuilder.converter.*;
 import de.sjwimmer.ta4jchart.chartbuilder.data.TacDataTableModel;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.BarSeriesColumns;
 import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowOHLCDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowBarDataset;
 import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowXYDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IDynamicDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IndicatorColumn;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IndicatorDependencies;
 import de.sjwimmer.ta4jchart.chartbuilder.listener.DomainAxisRangeChangeHandler;
+import de.sjwimmer.ta4jchart.chartbuilder.listener.FrameScheduler;
 import de.sjwimmer.ta4jchart.chartbuilder.renderer.*;
+import de.sjwimmer.ta4jchart.chartbuilder.utils.TacExecutors;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.CombinedDomainXYPlot;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.Range;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.ta4j.core.Bar;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.TradingRecord;
 import com.limemojito.trading.model.bar.Bar.Period;
-import org.ta4j.core.num.Num;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Dynamic chart builder for TA4J that implements IChartBuilderAdapter.
@@ -47,7 +68,6 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 	/** Converter for indicators to time series */
 	private final IndicatorToTimeSeriesConverter indicatorToTimeSeriesConverter;
 	/** Converter for indicators to bar data */
-	private final IndicatorToBarDataConverter indicatorToBarDataConverter;
 	/** Mutable chart instance that changes on timeframe switch */
 	private JFreeChart chart;
 
@@ -61,9 +81,49 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 	   /** List of indicator configuration builders */
 	   private final List<IndicatorConfiguration.Builder<?>> indicatorConfigBuilders = new ArrayList<>();
 
+	/** Whether zoomed-out candle windows are aggregated into synthetic candles */
+	private boolean levelOfDetailEnabled = false;
+	/** Whether zoomed-out indicator windows are M4-decimated */
+	private boolean indicatorDecimationEnabled = false;
+	/** Whether to precompute the OHLC pyramid of each full series in the background */
+	private boolean ohlcPyramidEnabled = false;
+
+	/** Indicator columns computing in the background for the current timeframe */
+	private final List<IndicatorColumn> indicatorColumns = new ArrayList<>();
+	/** The started indicator columns, grouped by shared sub-indicators */
+	private final List<IndicatorGroup> indicatorGroups = new ArrayList<>();
+	/** Columns added since the last {@link #startIndicatorColumns()}, with the dataset showing them */
+	private final Map<IndicatorColumn, DynamicWindowXYDataset> pendingColumns = new LinkedHashMap<>();
+	/** Data table column names of the pending columns that are added to the data table */
+	private final Map<IndicatorColumn, String> pendingTableColumns = new LinkedHashMap<>();
+	/** Executor computing the indicator columns */
+	private Executor indicatorExecutor = TacExecutors.indicators();
+	/** Indicator columns shown in the data table, by column name, to patch the table on live updates */
+	private final Map<String, IndicatorColumn> tableIndicatorColumns = new LinkedHashMap<>();
+
+	/** Live bar updates from any thread, waiting to be applied on the EDT */
+	private final Queue<LiveBarUpdate> liveBarUpdates = new ConcurrentLinkedQueue<>();
+	/** Whether a task applying the queued live bar updates is scheduled on the EDT */
+	private final AtomicBoolean liveBarUpdatesScheduled = new AtomicBoolean();
+	/** Whether the viewport moves along with new bars while the latest bar is visible */
+	private boolean autoFollowLatestBar = false;
+	/** Maximum number of bars kept in the charted series, see {@link #withMaximumBarCount(int)} */
+	private int maximumBarCount = Integer.MAX_VALUE;
+	/** Maximum number of chart updates per second while panning, zooming and loading */
+	private int targetFrameRate = FrameScheduler.DEFAULT_FRAME_RATE;
+	/** Whether the plots render their datasets from cached tiles, see {@link #withTiledRendering(boolean)} */
+	private boolean tiledRenderingEnabled = false;
+
+	/** Indicator subplots of the current chart, by indicator name */
+	private final Map<String, XYPlot> subplotsByName = new HashMap<>();
+	/** Names of the indicators whose subplots are hidden, kept across timeframe switches */
+	private final Set<String> hiddenSubplots = new HashSet<>();
+
 	/** Index for overlay indicators (dataset 0 is reserved for main dataset) */
 	private int overlayIndicatorIndex = 1;
 
+	/** Share of the chart height of an indicator subplot; the main plot has 10 */
+	private static final int SUBPLOT_WEIGHT = 1;
 	/** Number of bars to display per 100px of viewport width */
 	private static final int BARS_PER_100PX_VIEWPORT = 8;
 	   /** Buffer size for dynamic dataset in bars */
@@ -83,7 +143,7 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 	 * @param theme the chart theme
 	 */
 	private TacDynamicChartBuilder(BarSeries barSeries, Theme theme) {
-		this(barSeries, new BarSeriesConverterImpl(), new IndicatorToTimeSeriesConverterImpl(), new IndicatorToBarDataConverterImpl(), theme);
+		this(barSeries, new BarSeriesConverterImpl(), new IndicatorToTimeSeriesConverterImpl(), theme);
 	}
 
 	/**
@@ -91,15 +151,13 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 	 * @param initialBarSeries the initial bar series
 	 * @param barSeriesPlotter converter for bar series data
 	 * @param indicatorConverter converter for indicators to time series
-	 * @param indToBarDataConverter converter for indicators to bar data
 	 * @param chartTheme the chart theme
 	 */
 	private TacDynamicChartBuilder(BarSeries initialBarSeries, BarSeriesConverter barSeriesPlotter,
-	                                 IndicatorToTimeSeriesConverter indicatorConverter, IndicatorToBarDataConverter indToBarDataConverter, Theme chartTheme) {
+	                                 IndicatorToTimeSeriesConverter indicatorConverter, Theme chartTheme) {
 		this.theme = (chartTheme == Theme.DARK) ? new DarkTacChartTheme() : new LightTacChartTheme();
 		this.barSeriesConverter = barSeriesPlotter;
 		this.indicatorToTimeSeriesConverter = indicatorConverter;
-		this.indicatorToBarDataConverter = indToBarDataConverter;
 		
         this.currentFullBarSeries = initialBarSeries;
 		if (initialBarSeries instanceof IBarSeriesMultiTf) {
@@ -115,6 +173,8 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
         for (IndicatorConfiguration.Builder<?> builder : indicatorConfigBuilders) {
             addIndicatorToPlot(builder.build(), this.currentFullBarSeries);
         }
+        startIndicatorColumns();
+        buildOhlcPyramidInBackground(this.currentFullBarSeries);
         // TacChart needs the IChartBuilderAdapter instance
 		return new TacChart(chart, currentFullBarSeries, dataTableModel, tradingRecord, this);
 	}
@@ -124,6 +184,11 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
         return this.dynamicOHLCDataset;
     }
 
+    @Override
+    public DomainAxisRangeChangeHandler getAxisRangeChangeHandler() {
+        return this.axisListener;
+    }
+
     @Override
     public void setInitialChartViewport(JFreeChart chartToConfigure, int chartPanelWidth) {
         if (this.currentFullBarSeries == null || this.currentFullBarSeries.isEmpty() || chartToConfigure == null || this.dynamicOHLCDataset == null) {
@@ -194,8 +259,10 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
             log.error("Failed to get BarSeries for timeframe: {} or series is empty.", newTimeframe);
             this.currentFullBarSeries = new org.ta4j.core.BaseBarSeries("Empty " + newTimeframe.name());
         }
+        applyMaximumBarCount(this.currentFullBarSeries);
         this.dynamicOHLCDataset.setFullBarSeries(this.currentFullBarSeries, this.currentFullBarSeries.getName());
         domainAxis.setBarSeries(this.currentFullBarSeries);
+        buildOhlcPyramidInBackground(this.currentFullBarSeries);
 
 
         // Chart title
@@ -218,6 +285,8 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 
     this.axisListener.clearAllDatasets();
     this.axisListener.addDataset(this.dynamicOHLCDataset);
+    cancelIndicatorColumns();
+    this.tableIndicatorColumns.clear();
 
     List<XYPlot> subplotsToRemove = new ArrayList<>();
     for (int i = 1; i < combinedPlot.getSubplots().size(); i++) { // Keep main plot at index 0
@@ -226,11 +295,13 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
         for (XYPlot subplot : subplotsToRemove) {
             combinedPlot.remove(subplot);
         }
+        this.subplotsByName.clear();
 
         // Re-add all indicators using the new currentFullBarSeries
         for (IndicatorConfiguration.Builder<?> icBuilder : this.indicatorConfigBuilders) {
             addIndicatorToPlot(icBuilder.build(), this.currentFullBarSeries);
         }
+        startIndicatorColumns();
         
         // Attempt to restore viewport or set initial for new timeframe. Setting the axis range
         // triggers the axisListener, which updates every dynamic dataset's window. We map the
@@ -297,9 +368,11 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 		final TacCandlestickRenderer candlestickRenderer = new TacCandlestickRenderer();
 		
         this.dynamicOHLCDataset = new DynamicWindowOHLCDataset(seriesForChart, seriesName, DYNAMIC_DATASET_BUFFER_BARS);
+        this.dynamicOHLCDataset.setLevelOfDetailEnabled(this.levelOfDetailEnabled);
         
 		final XYPlot mainPlot = new OptimizedXYPlot(this.dynamicOHLCDataset, null, valueAxis, candlestickRenderer);
 		setPlotTheme(mainPlot); // Theme the main plot
+		applyTiledRendering(mainPlot);
 		final CombinedDomainXYPlot combinedDomainPlot = new OptimizedDomainXYPlot(timeAxis);
         combinedDomainPlot.setGap(10.0); // Gap between main plot and subplots
 		combinedDomainPlot.add(mainPlot, 10); // Main plot gets more weight
@@ -322,11 +395,136 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
             combinedDomainPlot.getDomainAxis().removeChangeListener(this.axisListener);
         }
     this.axisListener = new DomainAxisRangeChangeHandler(combinedDomainPlot.getDomainAxis(), this.dynamicOHLCDataset);
+        this.axisListener.setTargetFrameRate(this.targetFrameRate);
         combinedDomainPlot.getDomainAxis().addChangeListener(this.axisListener);
         
         return newChart;
 	}
 
+    /**
+     * Enables or disables merging of consecutive bars into synthetic candles when the chart is
+     * zoomed out so far that several bars share a pixel column (disabled by default). Indicator
+     * lines are decimated separately, see {@link #withIndicatorDecimation(boolean)}.
+     * @param enabled whether to aggregate bars when zoomed out
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withLevelOfDetail(boolean enabled) {
+        this.levelOfDetailEnabled = enabled;
+        this.dynamicOHLCDataset.setLevelOfDetailEnabled(enabled);
+        return this;
+    }
+
+    /**
+     * Enables or disables M4 decimation of the indicator datasets (disabled by default). When the
+     * chart is zoomed out so far that several bars share a pixel column, only the first, last,
+     * lowest and highest value of each column's bars are plotted, which draws the same pixels as
+     * the full line with far fewer segments; bar indicators show one bar per column, from its
+     * lowest to its highest value. Applies to the indicators added by {@link #build()} and by later timeframe switches, so call
+     * it before {@link #build()}.
+     * @param enabled whether to decimate the indicator lines when zoomed out
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withIndicatorDecimation(boolean enabled) {
+        this.indicatorDecimationEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Enables or disables computing the dataset windows on a background thread while panning and
+     * zooming (disabled by default). The previous windows keep rendering until the new ones are ready.
+     * @param enabled whether to load windows asynchronously
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withAsyncWindowLoading(boolean enabled) {
+        this.axisListener.setAsyncWindowLoading(enabled);
+        return this;
+    }
+
+    /**
+     * Sets how many times per second the chart is updated at most (60 by default). Axis moves while
+     * panning or zooming, new dataset windows, indicator progress and crosshair moves that arrive
+     * within one frame are applied together, with a single redraw. Use e.g. 120 on high refresh
+     * rate displays.
+     * @param framesPerSecond the target frame rate
+     * @return this builder
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public TacDynamicChartBuilder withTargetFrameRate(int framesPerSecond) {
+        this.axisListener.setTargetFrameRate(framesPerSecond); // validates
+        this.targetFrameRate = framesPerSecond;
+        return this;
+    }
+
+    /**
+     * Enables or disables rendering the plots from cached tiles of a fixed number of pixels along the
+     * domain axis (disabled by default). A horizontal pan then only renders the bars that come into
+     * view and draws the other tiles at their new offset. The tiles are rendered again when the zoom
+     * level, the range of the range axis or the data changes, so with automatic range adjustment the
+     * gain is limited to pans that keep the range. Tiled plots do not collect chart entities.
+     * @param enabled whether to render the plots from tiles
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withTiledRendering(boolean enabled) {
+        this.tiledRenderingEnabled = enabled;
+        for (Object subplot : ((CombinedDomainXYPlot) this.chart.getPlot()).getSubplots()) {
+            applyTiledRendering((XYPlot) subplot);
+        }
+        return this;
+    }
+
+    private void applyTiledRendering(XYPlot plot) {
+        if (plot instanceof OptimizedXYPlot && ((OptimizedXYPlot) plot).isTiledRendering() != this.tiledRenderingEnabled) {
+            ((OptimizedXYPlot) plot).setTiledRendering(this.tiledRenderingEnabled);
+        }
+    }
+
+    /**
+     * Enables a precomputed OHLC pyramid (see {@link de.sjwimmer.ta4jchart.chartbuilder.dataset.OhlcPyramid})
+     * for every full series shown by this chart (disabled by default). The pyramid is built in the
+     * background after {@link #build()} and after each timeframe switch; until it is ready, zoomed-out
+     * candles are merged on the fly. It costs about as much memory as the base columns again.
+     * @param enabled whether to precompute the pyramid
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withOhlcPyramid(boolean enabled) {
+        this.ohlcPyramidEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * @return the approximate heap size in bytes of the primitive columns of the current full series
+     * plus its OHLC pyramid, if built
+     */
+    public long getSeriesMemoryBytes() {
+        BarSeriesColumns columns = BarSeriesColumns.of(this.currentFullBarSeries);
+        return columns.getMemoryBytes() + (columns.getPyramid() == null ? 0 : columns.getPyramid().getMemoryBytes());
+    }
+
+    private void buildOhlcPyramidInBackground(BarSeries series) {
+        if (!ohlcPyramidEnabled || series == null || series.isEmpty()) {
+            return;
+        }
+        final BarSeriesColumns columns = BarSeriesColumns.of(series);
+        TacExecutors.background().execute(() -> {
+            long start = System.nanoTime();
+            long pyramidBytes = columns.buildPyramid().getMemoryBytes();
+            log.debug("Built OHLC pyramid for '{}' in {} ms ({} bytes, base columns {} bytes)", series.getName(),
+                    (System.nanoTime() - start) / 1_000_000, pyramidBytes, columns.getMemoryBytes());
+        });
+    }
+
+    /**
+     * Sets the executor that computes the indicator values in the background (by default a shared
+     * pool with one thread per core). Indicators sharing a sub-indicator are always computed one
+     * after the other, so the executor may run any number of tasks in parallel.
+     * @param executor the executor to compute indicator values on
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withIndicatorExecutor(Executor executor) {
+        this.indicatorExecutor = executor;
+        return this;
+    }
+
     public TacDynamicChartBuilder withIndicator(IndicatorConfiguration.Builder<?> indicatorConfigBuilder) {
         this.indicatorConfigBuilders.add(indicatorConfigBuilder);
         // Indicators are added during build() or switchTimeframe()
@@ -349,20 +547,24 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
 			if(config.getChartType() == ChartType.LINE) {
 				// Use an index-based dynamic dataset so overlay lines line up with the gap-free candles
 				// (a plain TimeSeriesCollection would plot against real timestamps and fall off the axis).
-				@SuppressWarnings("unchecked")
-				final DynamicWindowXYDataset overlayDataset = new DynamicWindowXYDataset(fullSeriesForIndicator, (Indicator<Num>) indicator, config.getName(), DYNAMIC_DATASET_BUFFER_BARS);
+				final IndicatorColumn column = new IndicatorColumn(indicator);
+				final DynamicWindowXYDataset overlayDataset = new DynamicWindowXYDataset(fullSeriesForIndicator, column, config.getName(), DYNAMIC_DATASET_BUFFER_BARS);
+				overlayDataset.setDecimationEnabled(this.indicatorDecimationEnabled);
 				this.axisListener.addDataset(overlayDataset);
 				final XYLineAndShapeRenderer lineRend = createLineRenderer(config);
 				mainCandlestickPlot.setRenderer(overlayIndicatorIndex, lineRend);
 				mainCandlestickPlot.setDataset(overlayIndicatorIndex, overlayDataset);
-				if (config.isAddToDataTable()) this.dataTableModel.addEntries(this.indicatorToTimeSeriesConverter.convert(indicator, config.getName()));
+				computeIndicatorColumn(column, overlayDataset, config);
 				overlayIndicatorIndex++;
 			} else if(config.getChartType() == ChartType.BAR) {
-				final TacBarDataset barDs = indicatorToBarDataConverter.convert(indicator, config.getName());
+				final IndicatorColumn column = new IndicatorColumn(indicator);
+				final DynamicWindowBarDataset barDataset = new DynamicWindowBarDataset(fullSeriesForIndicator, column, config.getName(), DYNAMIC_DATASET_BUFFER_BARS);
+				barDataset.setDecimationEnabled(this.indicatorDecimationEnabled);
+				this.axisListener.addDataset(barDataset);
 				final TacBarRenderer barRend = createBarRenderer(config);
 				mainCandlestickPlot.setRenderer(overlayIndicatorIndex, barRend);
-				mainCandlestickPlot.setDataset(overlayIndicatorIndex, barDs);
-				if(config.isAddToDataTable()) this.dataTableModel.addEntries(barDs);
+				mainCandlestickPlot.setDataset(overlayIndicatorIndex, barDataset);
+				computeIndicatorColumn(column, barDataset, config);
 				overlayIndicatorIndex++;
 			}
 		} else if (config.getPlotType() == PlotType.SUBPLOT) {
@@ -372,25 +574,408 @@ public class TacDynamicChartBuilder implements IChartBuilderAdapter { // Impleme
             subplotYAxis.setLabel(""); // Keep it clean
 
 			if(config.getChartType() == ChartType.BAR) {
-				final TacBarDataset barDs = indicatorToBarDataConverter.convert(indicator, config.getName());
+				final IndicatorColumn column = new IndicatorColumn(indicator);
+				final DynamicWindowBarDataset barDataset = new DynamicWindowBarDataset(fullSeriesForIndicator, column, config.getName(), DYNAMIC_DATASET_BUFFER_BARS);
+				barDataset.setDecimationEnabled(this.indicatorDecimationEnabled);
+				this.axisListener.addDataset(barDataset);
 				final TacBarRenderer barRend = createBarRenderer(config);
-                subplot = new OptimizedXYPlot(barDs, null, subplotYAxis, barRend);
-				if (config.isAddToDataTable()) this.dataTableModel.addEntries(barDs);
+                subplot = new OptimizedXYPlot(barDataset, null, subplotYAxis, barRend);
+				computeIndicatorColumn(column, barDataset, config);
 		} else {
-            @SuppressWarnings("unchecked")
-            final DynamicWindowXYDataset indicatorDataset = new DynamicWindowXYDataset(fullSeriesForIndicator, (Indicator<Num>) indicator, config.getName(), DYNAMIC_DATASET_BUFFER_BARS);
+            final IndicatorColumn column = new IndicatorColumn(indicator);
+            final DynamicWindowXYDataset indicatorDataset = new DynamicWindowXYDataset(fullSeriesForIndicator, column, config.getName(), DYNAMIC_DATASET_BUFFER_BARS);
+            indicatorDataset.setDecimationEnabled(this.indicatorDecimationEnabled);
             this.axisListener.addDataset(indicatorDataset);
 				final XYLineAndShapeRenderer lineRend = createLineRenderer(config);
             subplot = new OptimizedXYPlot(indicatorDataset, null, subplotYAxis, lineRend);
-			if (config.isAddToDataTable()) {
-                this.dataTableModel.addEntries(this.indicatorToTimeSeriesConverter.convert(indicator, config.getName()));
-			}
+            computeIndicatorColumn(column, indicatorDataset, config);
 		}
         setPlotTheme(subplot);
-        combinedPlot.add(subplot, 1);
+        applyTiledRendering(subplot);
+        combinedPlot.add(subplot, SUBPLOT_WEIGHT);
+        this.subplotsByName.put(config.getName(), subplot);
+        if (this.hiddenSubplots.contains(config.getName())) {
+            applySubplotVisibility(subplot, false);
+        }
 		}
 	}
 
+    /**
+     * Registers an indicator column to be computed by the next {@link #startIndicatorColumns()}. The
+     * dataset picks up newly computed values as they come in.
+     */
+    private void computeIndicatorColumn(IndicatorColumn column, DynamicWindowXYDataset dataset, IndicatorConfiguration<?> config) {
+        this.indicatorColumns.add(column);
+        this.pendingColumns.put(column, dataset);
+        if (config.isAddToDataTable()) {
+            this.pendingTableColumns.put(column, config.getName());
+            this.tableIndicatorColumns.put(config.getName(), column);
+        }
+    }
+
+    /**
+     * Computes the registered indicator columns on the indicator executor. Columns whose indicators
+     * share a sub-indicator are computed one after the other in one {@link IndicatorGroup}, since
+     * ta4j's caches are not safe to fill concurrently; independent groups run in parallel. Once all
+     * groups are done, the data table columns are converted from the computed column values and
+     * added on the EDT, in configuration order.
+     */
+    private void startIndicatorColumns() {
+        if (this.pendingColumns.isEmpty()) {
+            return;
+        }
+        final Map<IndicatorColumn, DynamicWindowXYDataset> datasets = new LinkedHashMap<>(this.pendingColumns);
+        final Map<IndicatorColumn, String> tableColumns = new LinkedHashMap<>(this.pendingTableColumns);
+        this.pendingColumns.clear();
+        this.pendingTableColumns.clear();
+
+        final List<List<IndicatorColumn>> groups = IndicatorDependencies.group(new ArrayList<>(datasets.keySet()));
+        log.debug("Computing {} indicators in {} independent groups", datasets.size(), groups.size());
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (List<IndicatorColumn> columns : groups) {
+            final IndicatorGroup group = new IndicatorGroup(columns, datasets);
+            this.indicatorGroups.add(group);
+            tasks.add(group.compute());
+        }
+        if (tableColumns.isEmpty()) {
+            return;
+        }
+        final BarSeries series = tableColumns.keySet().iterator().next().getBarSeries();
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).thenRun(() -> SwingUtilities.invokeLater(() -> {
+            // The bars to convert are read on the EDT, where live updates modify the series
+            if (!series.isEmpty()) {
+                convertTableColumns(tableColumns, series, series.getBeginIndex(), series.getEndIndex());
+            }
+        }));
+    }
+
+    /**
+     * Converts the values of the table columns from bar {@code convertedBegin} to
+     * {@code convertedEnd} on the indicator executor and adds them to the data table on the EDT.
+     */
+    private void convertTableColumns(Map<IndicatorColumn, String> tableColumns, BarSeries series, int convertedBegin, int convertedEnd) {
+        CompletableFuture.runAsync(() -> {
+            // Formatting the values keeps off the EDT; it reads the columns only, not the series or
+            // the indicators, which live updates may be modifying and computing meanwhile
+            final List<List<Object>> tableEntries = new ArrayList<>();
+            for (IndicatorColumn column : tableColumns.keySet()) {
+                if (column.isCancelled()) {
+                    return;
+                }
+                tableEntries.add(formatColumn(column, convertedBegin, convertedEnd));
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (tableColumns.keySet().stream().anyMatch(IndicatorColumn::isCancelled)) {
+                    return;
+                }
+                // The table's first row is the series' first bar: drop the rows of bars a maximum bar
+                // count removed while converting
+                final int removedRows = series.getBeginIndex() - convertedBegin;
+                int i = 0;
+                for (String name : tableColumns.values()) {
+                    final List<Object> entries = tableEntries.get(i++);
+                    if (removedRows > 0) {
+                        entries.subList(0, Math.min(removedRows, entries.size())).clear();
+                    }
+                    this.dataTableModel.addEntries(name, entries);
+                }
+                this.dataTableModel.fireTableStructureChanged();
+                // Live bars that arrived while converting are not in the new columns yet, and the
+                // last converted bar may have been updated
+                patchDataTable(series, convertedEnd);
+            });
+        }, this.indicatorExecutor).exceptionally(e -> {
+            log.error("Failed to add indicator values to the data table", e);
+            return null;
+        });
+    }
+
+    /** @return the computed values of a column from bar {@code begin} to {@code end}, formatted for the data table */
+    private static List<Object> formatColumn(IndicatorColumn column, int begin, int end) {
+        final List<Object> values = new ArrayList<>(Math.max(0, end - begin + 1));
+        for (int i = begin; i <= end; i++) {
+            values.add(TacDataTableModel.formatValue(column.getValue(i)));
+        }
+        return values;
+    }
+
+    /**
+     * Appends a bar to the series shown by the chart. May be called from any thread; the bar is
+     * added on the EDT, together with all other updates that arrived in the meantime, and the
+     * chart, its indicators and the data table are updated incrementally. Its end time must be
+     * after the end time of the current last bar.
+     * @param bar the new bar
+     */
+    @Override
+    public void addBar(Bar bar) {
+        enqueueLiveBarUpdate(new LiveBarUpdate(bar, false));
+    }
+
+    /**
+     * Replaces the last (in-progress) bar of the series shown by the chart. May be called from any
+     * thread, like {@link #addBar(Bar)}.
+     * @param bar the bar replacing the last bar
+     */
+    @Override
+    public void updateLastBar(Bar bar) {
+        enqueueLiveBarUpdate(new LiveBarUpdate(bar, true));
+    }
+
+    /**
+     * Hides or shows the subplot of an indicator, also after timeframe switches. A hidden subplot
+     * takes no space, and its datasets skip window updates while the chart is panned or zoomed;
+     * when shown again, they move to the visible range in one step. Must be called on the event
+     * dispatch thread.
+     * @param indicatorName the name of the indicator shown in the subplot
+     * @param visible whether to show the subplot
+     */
+    @Override
+    public void setSubplotVisible(String indicatorName, boolean visible) {
+        final boolean changed = visible ? this.hiddenSubplots.remove(indicatorName) : this.hiddenSubplots.add(indicatorName);
+        final XYPlot subplot = this.subplotsByName.get(indicatorName);
+        if (changed && subplot != null) {
+            applySubplotVisibility(subplot, visible);
+        }
+    }
+
+    private void applySubplotVisibility(XYPlot subplot, boolean visible) {
+        // Without weight, the combined plot gives the subplot no height and it is not drawn
+        subplot.setWeight(visible ? SUBPLOT_WEIGHT : 0);
+        for (int i = 0; i < subplot.getDatasetCount(); i++) {
+            if (subplot.getDataset(i) instanceof IDynamicDataset) {
+                this.axisListener.setDatasetVisible((IDynamicDataset) subplot.getDataset(i), visible);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables moving the viewport along with new bars (disabled by default). While
+     * enabled and the latest bar is visible, each appended bar scrolls the chart by one bar, so the
+     * latest bar stays in view; after panning back into the history, the viewport stays put.
+     * @param enabled whether to follow the latest bar
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withAutoFollowLatestBar(boolean enabled) {
+        this.autoFollowLatestBar = enabled;
+        return this;
+    }
+
+    public boolean isAutoFollowLatestBar() {
+        return autoFollowLatestBar;
+    }
+
+    /**
+     * Caps the history of the charted series for long-running live charts (unlimited by default).
+     * The series keeps only its last {@code maximumBarCount} bars (see
+     * {@link BarSeries#setMaximumBarCount(int)}): each appended bar beyond the limit removes the
+     * oldest bar from the series, the dataset columns, the indicator columns and the data table,
+     * so memory stays flat however long the chart runs. Bar indices stay as they are, so the
+     * removed bars just leave the left end of the domain axis. With multiple timeframes, the limit
+     * applies to each series when it is shown.
+     * @param maximumBarCount the maximum number of bars to keep
+     * @return this builder
+     */
+    public TacDynamicChartBuilder withMaximumBarCount(int maximumBarCount) {
+        if (maximumBarCount <= 0) {
+            throw new IllegalArgumentException("Maximum bar count must be strictly positive");
+        }
+        this.maximumBarCount = maximumBarCount;
+        final int removedBars = applyMaximumBarCount(this.currentFullBarSeries);
+        this.dataTableModel.removeFirstRows(removedBars);
+        return this;
+    }
+
+    public int getMaximumBarCount() {
+        return maximumBarCount;
+    }
+
+    /** @return the number of bars removed from the front of the series */
+    private int applyMaximumBarCount(BarSeries series) {
+        if (series == null || this.maximumBarCount == Integer.MAX_VALUE || series.getMaximumBarCount() == this.maximumBarCount) {
+            return 0;
+        }
+        final int oldBeginIndex = series.getBeginIndex();
+        series.setMaximumBarCount(this.maximumBarCount);
+        return series.isEmpty() ? 0 : Math.max(0, series.getBeginIndex() - oldBeginIndex);
+    }
+
+    private void enqueueLiveBarUpdate(LiveBarUpdate update) {
+        this.liveBarUpdates.add(update);
+        if (this.liveBarUpdatesScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::applyLiveBarUpdates);
+        }
+    }
+
+    /**
+     * Applies all queued live bar updates at once and patches what they changed. Runs on the EDT.
+     * ta4j's bar series is not thread-safe, and the indicator groups read it while computing: as
+     * long as a group of the series has a task running, the updates are held and applied once all
+     * groups are idle. The values of the new bars are then computed by tasks queued after the
+     * modification.
+     */
+    private void applyLiveBarUpdates() {
+        final BarSeries series = this.currentFullBarSeries;
+        if (series == null) {
+            this.liveBarUpdatesScheduled.set(false);
+            this.liveBarUpdates.clear();
+            return;
+        }
+        final List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (IndicatorGroup group : this.indicatorGroups) {
+            if (group.getBarSeries() == series && !group.isIdle()) {
+                running.add(group.getTail());
+            }
+        }
+        if (!running.isEmpty()) {
+            // Still scheduled: updates arriving meanwhile join the held ones
+            CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0]))
+                    .whenComplete((result, e) -> SwingUtilities.invokeLater(this::applyLiveBarUpdates));
+            return;
+        }
+        this.liveBarUpdatesScheduled.set(false);
+        final int oldBeginIndex = series.getBeginIndex();
+        final int oldEndIndex = series.isEmpty() ? -1 : series.getEndIndex();
+        boolean changed = false;
+        LiveBarUpdate update;
+        while ((update = this.liveBarUpdates.poll()) != null) {
+            try {
+                series.addBar(update.bar, update.replaceLast && !series.isEmpty());
+                changed = true;
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring live bar ending {}: {}", update.bar.getEndTime(), e.getMessage());
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        // The former last bar may have been replaced as well, and with a maximum bar count the
+        // oldest bars have been removed
+        final int firstChangedIndex = Math.max(series.getBeginIndex(), oldEndIndex);
+        final int removedBars = oldEndIndex < 0 ? 0 : Math.max(0, series.getBeginIndex() - oldBeginIndex);
+        BarSeriesColumns.update(series);
+        for (IndicatorColumn column : this.indicatorColumns) {
+            if (column.getBarSeries() == series) {
+                column.barsChanged();
+            }
+        }
+        this.dataTableModel.removeFirstRows(removedBars);
+        patchDataTable(series, firstChangedIndex); // the indicator values follow once computed
+        // The new values are computed on each group's task, never here next to a running computation
+        final List<CompletableFuture<Void>> computed = new ArrayList<>();
+        for (IndicatorGroup group : this.indicatorGroups) {
+            if (group.getBarSeries() == series) {
+                computed.add(group.compute());
+            }
+        }
+        if (!computed.isEmpty() && !this.tableIndicatorColumns.isEmpty()) {
+            CompletableFuture.allOf(computed.toArray(new CompletableFuture<?>[0])).thenRun(() -> SwingUtilities.invokeLater(() -> {
+                if (this.currentFullBarSeries == series) {
+                    patchDataTable(series, firstChangedIndex);
+                }
+            }));
+        }
+
+        final ValueAxis domainAxis = ((CombinedDomainXYPlot) this.chart.getPlot()).getDomainAxis();
+        final Range range = domainAxis.getRange();
+        final int newBars = series.getEndIndex() - oldEndIndex;
+        if (this.autoFollowLatestBar && oldEndIndex >= 0 && newBars > 0 && range.getUpperBound() >= oldEndIndex) {
+            this.axisListener.runBatch(() -> domainAxis.setRange(range.getLowerBound() + newBars, range.getUpperBound() + newBars)); // updates the windows
+        } else {
+            this.axisListener.refresh();
+        }
+    }
+
+    /**
+     * Sets the data table rows of the bars from {@code fromIndex} on. Indicator values are taken from
+     * the indicator columns; cells of values that are not computed yet keep what they show.
+     */
+    private void patchDataTable(BarSeries series, int fromIndex) {
+        for (int i = Math.max(fromIndex, series.getBeginIndex()); i <= series.getEndIndex(); i++) {
+            final Bar bar = series.getBar(i);
+            final int row = i - series.getBeginIndex();
+            for (Map.Entry<String, IndicatorColumn> entry : this.tableIndicatorColumns.entrySet()) {
+                final IndicatorColumn column = entry.getValue();
+                if (column.getBarSeries() == series && column.isReady(i)) {
+                    this.dataTableModel.setValue(row, entry.getKey(), column.getValue(i));
+                }
+            }
+            final LocalDateTime date = Instant.ofEpochMilli(this.barSeriesConverter.getMilliseconds(bar)).atZone(ZoneId.systemDefault()).toLocalDateTime();
+            this.dataTableModel.setRow(row, date, bar.getClosePrice().doubleValue());
+        }
+    }
+
+    /** A bar to append, or to replace the last bar with. */
+    private static final class LiveBarUpdate {
+        final Bar bar;
+        final boolean replaceLast;
+
+        LiveBarUpdate(Bar bar, boolean replaceLast) {
+            this.bar = bar;
+            this.replaceLast = replaceLast;
+        }
+    }
+
+    /**
+     * Indicator columns whose indicators share a sub-indicator. Everything that fills their ta4j
+     * caches runs as a task of the group, each task after the previous one on the indicator
+     * executor, so the caches are never filled from two threads at once.
+     */
+    private final class IndicatorGroup {
+        private final List<IndicatorColumn> columns;
+        private final Map<IndicatorColumn, DynamicWindowXYDataset> datasets;
+        /** Completes when the last task of the group has run; only used on the EDT (and by build()) */
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        IndicatorGroup(List<IndicatorColumn> columns, Map<IndicatorColumn, DynamicWindowXYDataset> datasets) {
+            this.columns = columns;
+            this.datasets = datasets;
+        }
+
+        BarSeries getBarSeries() {
+            return columns.get(0).getBarSeries();
+        }
+
+        /** @return whether no task of the group is queued or running */
+        boolean isIdle() {
+            return tail.isDone();
+        }
+
+        /** @return a future completing when the last task queued so far has run */
+        CompletableFuture<Void> getTail() {
+            return tail;
+        }
+
+        /**
+         * Computes the values of the columns that are not computed yet, after the previous task.
+         * @return a future completing when the values are computed
+         */
+        CompletableFuture<Void> compute() {
+            // Progress of all columns within one frame is shown with a single chart update
+            final FrameScheduler frames = axisListener.getFrameScheduler();
+            tail = tail.thenRunAsync(() -> {
+                for (IndicatorColumn column : columns) {
+                    final Runnable progressed = datasets.get(column)::columnProgressed;
+                    column.compute(() -> frames.request(progressed));
+                }
+            }, indicatorExecutor).exceptionally(e -> {
+                log.error("Failed to compute indicators", e);
+                return null;
+            });
+            return tail;
+        }
+    }
+
+    /** Stops the background computation of the indicators of the previous timeframe. */
+    private void cancelIndicatorColumns() {
+        for (IndicatorColumn column : this.indicatorColumns) {
+            column.cancel();
+        }
+        this.indicatorColumns.clear();
+        this.indicatorGroups.clear();
+        this.pendingColumns.clear();
+        this.pendingTableColumns.clear();
+    }
+
 	/**
 	 * Applies the current theme styling to the specified XY plot.
 	 * @param plot the plot to theme
@@ -19,13 +19,14 @@ import org.jfree.data.general.DatasetChangeListener;
 import org.jfree.data.xy.XYDataset;
 import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowOHLCDataset;
 import de.sjwimmer.ta4jchart.chartbuilder.IChartBuilderAdapter;
+import de.sjwimmer.ta4jchart.chartbuilder.listener.FrameScheduler;
 
 import java.awt.*;
+import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.text.ParseException;
 import java.time.Instant;
 import java.util.Date;
-import java.util.Iterator;
 
 public class TacChartMouseHandler implements ChartMouseListener, Overlay, DatasetChangeListener {
 
@@ -37,11 +38,21 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
     private double y = Double.NaN;
     private double xx = Double.NaN;
     private double yy = Double.NaN;
+    private double crosshairDomainValue = Double.NaN; // xx snapped to a bar
+    private int crosshairSubplot = -1; // the subplot showing the range crosshair
+    private final Line2D crosshairLine = new Line2D.Double();
     private boolean sticky = true;
-    long[] ohlcXValues;
+    double[] ohlcXValues; // double: merged candles sit at fractional group centres
 
     // Add to TacChartMouseHandler
     private DynamicWindowOHLCDataset dynamicDatasetForCrosshair;
+    // The window the snap positions were read from; dates are looked up in the same window
+    private DynamicWindowOHLCDataset.Window crosshairWindow;
+
+    // Moves the crosshair at most once per frame; null moves it on every mouse event
+    private FrameScheduler frameScheduler;
+    private ChartMouseEvent pendingMove;
+    private final Runnable moveTask = () -> moveCrosshair(pendingMove);
 
     public TacChartMouseHandler(ChartPanel chartPanel) {
         this.chartPanel = chartPanel;
@@ -74,28 +85,29 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
                             updateOhlcXValuesFromDynamicDataset();
                         } else {
                             dynamicDatasetForCrosshair = null;
-                            ohlcXValues = new long[0]; // Clear if not dynamic
+                            crosshairWindow = null;
+                            ohlcXValues = new double[0]; // Clear if not dynamic
                         }
                     }
                 }
             }
         });
         
+        // The crosshair is painted as an overlay on top of the buffered chart image; the plots' own
+        // crosshairs would change the plots on every mouse move and redraw the whole chart.
         for(Object p: this.combinedDomainXYPlot.getSubplots()){
             if(p instanceof XYPlot) {
                 XYPlot subPlot = (XYPlot) p;
-                subPlot.setDomainCrosshairVisible(true);
-                subPlot.setRangeCrosshairVisible(true);
+                subPlot.setDomainCrosshairVisible(false);
+                subPlot.setRangeCrosshairVisible(false);
             }
         }
 
         final XYDataset dataset = mainPlot.getDataset(0);
         final int entriesCount = dataset.getItemCount(0);
-        ohlcXValues = new long[entriesCount];
+        ohlcXValues = new double[entriesCount];
         for(int i = 0; i< entriesCount; i++) {
-            // getX returns a Number (an Integer for the index-based datasets); a (long) cast on a
-            // Number reference compiles to ((Long) x).longValue() and throws when x is an Integer.
-            ohlcXValues[i] = dataset.getX(0, i).longValue();
+            ohlcXValues[i] = dataset.getXValue(0, i); // primitive accessor: no Number boxed per item
         }
     }
 
@@ -103,8 +115,27 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
     public void chartMouseClicked(ChartMouseEvent event) {
     }
 
+    /**
+     * Paces the crosshair with the chart's other updates: of the mouse moves within one frame, only
+     * the last one moves the crosshair, together with whatever else changes in that frame. The
+     * crosshair is an overlay task, so a frame that only moves it does not redraw the chart.
+     * @param frameScheduler the scheduler of the chart, or {@code null} to follow every mouse move
+     */
+    public void setFrameScheduler(FrameScheduler frameScheduler) {
+        this.frameScheduler = frameScheduler;
+    }
+
     @Override
     public void chartMouseMoved(ChartMouseEvent event) {
+        if (frameScheduler == null) {
+            moveCrosshair(event);
+            return;
+        }
+        pendingMove = event;
+        frameScheduler.requestOverlay(moveTask);
+    }
+
+    private void moveCrosshair(ChartMouseEvent event) {
         int x = event.getTrigger().getX();
         int y = event.getTrigger().getY();
         final Point p = new Point(x, y);
@@ -120,26 +151,17 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
             double xx = combinedDomainXYPlot.getDomainAxis().java2DToValue(point.getX(), dataArea, combinedDomainXYPlot.getDomainAxisEdge());
             log.debug("y: {} yy: {}", x, xx);
             final Rectangle2D panelArea = chartPanel.getScreenDataArea(x, y);
-            final java.util.List<?>subplots = combinedDomainXYPlot.getSubplots();
-            final Iterator<?> iterator = subplots.iterator();
-            int plotIndex = 0;
-            while (iterator.hasNext()) {
-                XYPlot subPlot = (XYPlot) iterator.next();
-                subPlot.setDomainCrosshairVisible(true);
-                subPlot.setDomainCrosshairValue(findClosestXValue(xx));
-                if(subplotIndex == plotIndex && panelArea != null) {
-                    double yy = subPlot.getRangeAxis().java2DToValue(point.getY(), panelArea, subPlot.getRangeAxisEdge());
-                    log.debug("y: {} yy: {}", y, yy);
-                    subPlot.setRangeCrosshairVisible(true);
-                    subPlot.setRangeCrosshairValue(yy);
-                    this.x = x;
-                    this.y = y;
-                    this.xx = xx;
-                    this.yy = yy;
-                } else {
-                    subPlot.setRangeCrosshairVisible(false);
-                }
-                plotIndex++;
+            final XYPlot subPlot = (XYPlot) combinedDomainXYPlot.getSubplots().get(subplotIndex);
+            if(panelArea != null) {
+                double yy = subPlot.getRangeAxis().java2DToValue(point.getY(), panelArea, subPlot.getRangeAxisEdge());
+                log.debug("y: {} yy: {}", y, yy);
+                this.x = x;
+                this.y = y;
+                this.xx = xx;
+                this.yy = yy;
+                this.crosshairDomainValue = findClosestXValue(xx);
+                this.crosshairSubplot = subplotIndex;
+                chartPanel.repaint(); // repaints the overlays on the buffered chart image
             }
         }
     }
@@ -158,16 +180,54 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
     @Override
     public void paintOverlay(Graphics2D g2, ChartPanel chartPanel) {
         if(!Double.isNaN(x) && !Double.isNaN(y)) {
+            paintCrosshair(g2, chartPanel);
             g2.drawString("Date: " + createDateString(xx), (int)x+10, (int)y+60);
             g2.drawString("Value: " + String.format("%.5f", yy), (int)x+10, (int)y+80);
         }
     }
 
+    /**
+     * Draws the domain crosshair through every subplot and the range crosshair in the subplot under the
+     * mouse, with the crosshair paint and stroke of the plots.
+     */
+    private void paintCrosshair(Graphics2D g2, ChartPanel chartPanel) {
+        final PlotRenderingInfo plotInfo = chartPanel.getChartRenderingInfo().getPlotInfo();
+        final java.util.List<?> subplots = combinedDomainXYPlot.getSubplots();
+        final Paint savedPaint = g2.getPaint();
+        final Stroke savedStroke = g2.getStroke();
+        for (int i = 0; i < subplots.size() && i < plotInfo.getSubplotCount(); i++) {
+            final XYPlot subPlot = (XYPlot) subplots.get(i);
+            final Rectangle2D area = chartPanel.scale(plotInfo.getSubplotInfo(i).getDataArea()); // screen coordinates
+            if (area.isEmpty()) {
+                continue;
+            }
+            final double domainX = combinedDomainXYPlot.getDomainAxis().valueToJava2D(crosshairDomainValue, area, combinedDomainXYPlot.getDomainAxisEdge());
+            if (domainX >= area.getMinX() && domainX <= area.getMaxX()) {
+                g2.setPaint(subPlot.getDomainCrosshairPaint());
+                g2.setStroke(subPlot.getDomainCrosshairStroke());
+                crosshairLine.setLine(domainX, area.getMinY(), domainX, area.getMaxY());
+                g2.draw(crosshairLine);
+            }
+            if (i == crosshairSubplot) {
+                final double rangeY = subPlot.getRangeAxis().valueToJava2D(yy, area, subPlot.getRangeAxisEdge());
+                if (rangeY >= area.getMinY() && rangeY <= area.getMaxY()) {
+                    g2.setPaint(subPlot.getRangeCrosshairPaint());
+                    g2.setStroke(subPlot.getRangeCrosshairStroke());
+                    crosshairLine.setLine(area.getMinX(), rangeY, area.getMaxX(), rangeY);
+                    g2.draw(crosshairLine);
+                }
+            }
+        }
+        g2.setPaint(savedPaint);
+        g2.setStroke(savedStroke);
+    }
+
     private String createDateString(double xx) {
         double snapped = findClosestXValue(xx);
         // The dynamic dataset's X values are bar indices, not timestamps; convert back to a real date.
-        long millis = (dynamicDatasetForCrosshair != null)
-                ? dynamicDatasetForCrosshair.indexToTimeMillis(snapped)
+        final DynamicWindowOHLCDataset.Window window = this.crosshairWindow;
+        long millis = (window != null)
+                ? window.indexToTimeMillis(snapped)
                 : (long) snapped;
         Date date = Date.from(Instant.ofEpochMilli(millis));
         try {
@@ -198,11 +258,9 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
 
         if (dataset != null) {
             final int entriesCount = dataset.getItemCount(0);
-            ohlcXValues = new long[entriesCount];
+            ohlcXValues = new double[entriesCount];
             for (int i = 0; i < entriesCount; i++) {
-                // .longValue() unboxes any Number; a (long) cast would compile to ((Long) x) and
-                // throw a ClassCastException when getX returns an Integer (it does for index datasets).
-                ohlcXValues[i] = dataset.getX(0, i).longValue();
+                ohlcXValues[i] = dataset.getXValue(0, i);
             }
         }
     }
@@ -217,15 +275,19 @@ public class TacChartMouseHandler implements ChartMouseListener, Overlay, Datase
 
     private void updateOhlcXValuesFromDynamicDataset() {
         if (dynamicDatasetForCrosshair == null) {
-            this.ohlcXValues = new long[0];
+            this.crosshairWindow = null;
+            this.ohlcXValues = new double[0];
             return;
         }
-        final int itemCount = dynamicDatasetForCrosshair.getItemCount(0);
+        // One snapshot for the whole loop: a window published meanwhile cannot change the item count under it
+        final DynamicWindowOHLCDataset.Window window = dynamicDatasetForCrosshair.getWindow();
+        final int itemCount = window.getItemCount();
         if (this.ohlcXValues == null || this.ohlcXValues.length != itemCount) {
-            this.ohlcXValues = new long[itemCount];
+            this.ohlcXValues = new double[itemCount];
         }
         for (int i = 0; i < itemCount; i++) {
-            this.ohlcXValues[i] = dynamicDatasetForCrosshair.getX(0, i).longValue();
+            this.ohlcXValues[i] = window.getXValue(i);
         }
+        this.crosshairWindow = window;
     }
 }
@@ -15,46 +15,157 @@ public class TacDataTableModel extends AbstractTableModel{
 	private static final long serialVersionUID = 7271440542755921838L;
 
 	private final List<LocalDateTime> dates = new ArrayList<>();
-	private final List<Number> closes = new ArrayList<>();
+	/** Close of each list entry, unboxed; the first {@code closeCount} slots are used */
+	private double[] closes = new double[16];
+	private int closeCount = 0;
 
 	private final Map<String, List<Object>> data = new LinkedHashMap<>();
 
+	/** Number of leading list entries that belong to removed rows, see {@link #removeFirstRows(int)} */
+	private int firstRow = 0;
+
+	/**
+	 * Formats a value of an indicator column; all columns use it, so they read the same.
+	 * @param value the value
+	 * @return the text shown in the cell
+	 */
+	public static String formatValue(double value) {
+		return String.format("%.3f", value);
+	}
+
 	public void clearAllEntries() {
         this.dates.clear();
-        this.closes.clear();
+        this.closeCount = 0;
         this.data.clear();
+        this.firstRow = 0;
         fireTableStructureChanged(); // Notify table that everything might have changed
     }
 
 	public void addEntries(String columnName, List<Object> values) {
+		compact(); // the new values start at the current first row
 		this.data.put(columnName, values);
 	}
 
+	/**
+	 * Removes the first rows, e.g. the bars a series with a maximum bar count has dropped, and
+	 * notifies the table. The entries are only marked as removed and discarded in bulk once they
+	 * make up half of the lists, so removing a row per appended bar costs amortized constant time.
+	 * @param count the number of rows to remove
+	 */
+	public void removeFirstRows(int count) {
+		final int removed = Math.min(count, getRowCount());
+		if (removed <= 0) {
+			return;
+		}
+		this.firstRow += removed;
+		if (this.firstRow >= Math.max(this.dates.size(), maxColumnSize()) / 2) {
+			compact();
+		}
+		fireTableRowsDeleted(0, removed - 1);
+	}
+
+	private void compact() {
+		if (this.firstRow == 0) {
+			return;
+		}
+		removeFirst(this.dates, this.firstRow);
+		final int removedCloses = Math.min(this.firstRow, this.closeCount);
+		System.arraycopy(this.closes, removedCloses, this.closes, 0, this.closeCount - removedCloses);
+		this.closeCount -= removedCloses;
+		for (List<Object> column : this.data.values()) {
+			removeFirst(column, this.firstRow);
+		}
+		this.firstRow = 0;
+	}
+
+	private static void removeFirst(List<?> list, int count) {
+		list.subList(0, Math.min(count, list.size())).clear();
+	}
+
+	private int maxColumnSize() {
+		return this.data.values().stream().mapToInt(List::size).max().orElse(0);
+	}
+
 	public void addEntries(TacBarDataset barDataset) {
 		final List<Object> values = new ArrayList<>();
 		final XYSeries series = barDataset.getSeries(0);
 		for(int i = 0; i < series.getItemCount(); i++) {
-			values.add(String.format("%.3f", series.getX(i).doubleValue()));
+			values.add(formatValue(series.getX(i).doubleValue()));
 		}
 		this.addEntries(barDataset.getSeriesKey(0).toString(), values);
 	}
 
 	public void addEntries(OHLCDataset xyDataset) {
-		for (int i = 0; i < xyDataset.getItemCount(0); i++) {
-			final Number close = xyDataset.getClose(0, i);
-			final long x = xyDataset.getX(0, i).longValue();
+		final int itemCount = xyDataset.getItemCount(0);
+		ensureCloseCapacity(this.closeCount + itemCount);
+		for (int i = 0; i < itemCount; i++) {
+			final long x = (long) xyDataset.getXValue(0, i);
 			final java.time.LocalDateTime date = Instant.ofEpochMilli(x).atZone(ZoneId.systemDefault()).toLocalDateTime();
-			this.closes.add(close);
+			this.closes[this.closeCount++] = xyDataset.getCloseValue(0, i);
 			this.dates.add(date);
 		}
         fireTableStructureChanged(); // Or fireTableDataChanged if structure is same
 	}
 
+	/**
+	 * Sets the value of a row in a column, formatted with {@link #formatValue(double)}, appending
+	 * rows to the column as needed. Does not notify the table: set the values of a row first, then
+	 * the row itself with {@link #setRow(int, LocalDateTime, double)}.
+	 * @param row the row index
+	 * @param columnName the name of the column; unknown columns are ignored
+	 * @param value the value
+	 */
+	public void setValue(int row, String columnName, double value) {
+		final List<Object> column = this.data.get(columnName);
+		if (column != null) {
+			setValue(column, this.firstRow + row, formatValue(value));
+		}
+	}
+
+	/**
+	 * Sets the date and close of a row, appending rows as needed, and notifies the table of the
+	 * inserted or updated row, including the values set with {@link #setValue(int, String, double)}.
+	 * @param row the row index
+	 * @param date the date of the row
+	 * @param close the close of the row
+	 */
+	public void setRow(int row, LocalDateTime date, double close) {
+		final boolean inserted = row >= getRowCount();
+		setValue(this.dates, this.firstRow + row, date);
+		setClose(this.firstRow + row, close);
+		if (inserted) {
+			fireTableRowsInserted(row, row);
+		} else {
+			fireTableRowsUpdated(row, row);
+		}
+	}
+
+	private void setClose(int row, double close) {
+		ensureCloseCapacity(row + 1);
+		while (this.closeCount <= row) {
+			this.closes[this.closeCount++] = Double.NaN;
+		}
+		this.closes[row] = close;
+	}
+
+	private void ensureCloseCapacity(int capacity) {
+		if (capacity > this.closes.length) {
+			this.closes = Arrays.copyOf(this.closes, Math.max(capacity, this.closes.length + (this.closes.length >> 1)));
+		}
+	}
+
+	private static <T> void setValue(List<T> column, int row, T value) {
+		while (column.size() <= row) {
+			column.add(null);
+		}
+		column.set(row, value);
+	}
+
 	public void addEntries(TimeSeriesCollection timeSeriesCollection){
 		final List<Object> values = new ArrayList<>();
 		for(int i = 0; i < timeSeriesCollection.getSeries(0).getItemCount(); i ++){
 			Number value = timeSeriesCollection.getSeries(0).getValue(i);
-			values.add(String.format("%.3f", value.doubleValue()));
+			values.add(formatValue(value.doubleValue()));
 		}
 		this.addEntries(timeSeriesCollection.getSeriesKey(0).toString(), values);
 	}
@@ -62,18 +173,18 @@ public class TacDataTableModel extends AbstractTableModel{
 	@Override
 	public int getRowCount() {
 		// If we have date/close data, use that for row count
-		if (!dates.isEmpty() && !closes.isEmpty()) {
-			return dates.size();
+		if (!dates.isEmpty() && closeCount > 0) {
+			return dates.size() - firstRow;
 		}
 		// Otherwise use custom data
 		Optional<List<Object>> entry = data.values().stream().findAny();
-		return entry.map(List::size).orElse(0);
+		return entry.map(values -> Math.max(0, values.size() - firstRow)).orElse(0);
 	}
 
 	@Override
     public String getColumnName(int col) {
 		// If we have date/close data, use the fixed column layout
-		if (!dates.isEmpty() && !closes.isEmpty()) {
+		if (!dates.isEmpty() && closeCount > 0) {
 			if(col == 0){
 				return "Date";
 			} else if(col == 1) {
@@ -89,7 +200,7 @@ public class TacDataTableModel extends AbstractTableModel{
 	@Override
 	public int getColumnCount() {
 		// If we have date/close data, add 2 for the Date and Close columns
-		if (!dates.isEmpty() && !closes.isEmpty()) {
+		if (!dates.isEmpty() && closeCount > 0) {
 			return data.keySet().size() + 2;
 		} else {
 			// If we only have custom data, return just the custom column count
@@ -100,19 +211,23 @@ public class TacDataTableModel extends AbstractTableModel{
 	@Override
 	public Object getValueAt(int rowIndex, int columnIndex) {
 		// If we have date/close data, use the fixed column layout
-		if (!dates.isEmpty() && !closes.isEmpty()) {
+		if (!dates.isEmpty() && closeCount > 0) {
 			if(columnIndex == 0){
-				return dates.get(rowIndex);
+				return dates.get(firstRow + rowIndex);
 			} else if(columnIndex == 1) {
-				return closes.get(rowIndex);
+				return closes[firstRow + rowIndex];
 			}
 			final String columnName = getColumnName(columnIndex);
-			return data.get(columnName).get(rowIndex);
+			return valueAt(data.get(columnName), firstRow + rowIndex);
 		} else {
 			// If we only have custom data, get values directly from custom data
 			final String columnName = getColumnName(columnIndex);
-			return data.get(columnName).get(rowIndex);
+			return valueAt(data.get(columnName), firstRow + rowIndex);
 		}
 	}
 
+	// A column added while live bars come in may not have reached the last rows yet
+	private static Object valueAt(List<Object> column, int rowIndex) {
+		return rowIndex < column.size() ? column.get(rowIndex) : null;
+	}
 }
@@ -0,0 +1,141 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Maps every bar of one series to the last bar of another series whose end time is at or before the
+ * first bar's end time (an "as-of" lookup). Used to show an indicator computed on one timeframe
+ * on a chart of another timeframe: each candle shows the indicator value that was current at its
+ * close.
+ * <p>
+ * The map is built once per pair of {@link BarSeriesColumns} lineages (see
+ * {@link BarSeriesColumns#update(org.ta4j.core.BarSeries)}) with a single merge pass over both
+ * end-time columns, and cached for as long as both lineages are in use. When either series grows,
+ * the map is extended in place: only the bars after the last mapped one, plus the bars that may map
+ * to a bar that was replaced or appended, are merged again, so a live bar costs a few steps instead
+ * of a pass over the whole chart series. Like the columns, an older map may then show the updated
+ * value for its last bars.
+ */
+final class AsOfIndexMap {
+
+    /** Maps per (chart lineage, indicator lineage) pair; weak keys so unused lineages can be collected. */
+    private static final Map<Object, Map<Object, Entry>> CACHE = new WeakHashMap<>();
+
+    /** The indices of one pair of lineages and the columns they were last merged for (guarded by CACHE). */
+    private static final class Entry {
+        BarSeriesColumns from;
+        BarSeriesColumns to;
+        int base; // Full-series index of the "from" bar in the first slot
+        int[] indices;
+    }
+
+    private final int base;
+    private final int toBegin;
+    private final int[] indices;
+
+    private AsOfIndexMap(int base, int toBegin, int[] indices) {
+        this.base = base;
+        this.toBegin = toBegin;
+        this.indices = indices;
+    }
+
+    /**
+     * Returns the map from the bars of {@code from} to the bars of {@code to}, building it on first
+     * use of the two lineages and extending it when their columns have grown since.
+     *
+     * @param from the columns of the series whose indices are looked up (the chart's series)
+     * @param to the columns of the series the indices map to (the indicator's series)
+     * @return the as-of map
+     */
+    static AsOfIndexMap of(BarSeriesColumns from, BarSeriesColumns to) {
+        synchronized (CACHE) { // several overlays of one indicator series share the map
+            final Map<Object, Entry> entries = CACHE.computeIfAbsent(from.getLineage(), key -> new WeakHashMap<>());
+            Entry entry = entries.get(to.getLineage());
+            if (entry == null) {
+                entry = new Entry();
+                build(entry, from, to);
+                entries.put(to.getLineage(), entry);
+            } else if (entry.from != from || entry.to != to) {
+                if (from.getEndIndex() >= entry.from.getEndIndex() && to.getEndIndex() >= entry.to.getEndIndex()
+                        && from.getBeginIndex() >= entry.base) {
+                    extend(entry, from, to);
+                } else if (from.getEndIndex() > entry.from.getEndIndex() || to.getEndIndex() > entry.to.getEndIndex()
+                        || from.getBeginIndex() < entry.base) {
+                    // neither older nor newer than the cached columns: map these on their own
+                    final Entry own = new Entry();
+                    build(own, from, to);
+                    return new AsOfIndexMap(own.base, to.getBeginIndex(), own.indices);
+                } // else: older columns, whose bars are all mapped already
+            }
+            return new AsOfIndexMap(entry.base, to.getBeginIndex(), entry.indices);
+        }
+    }
+
+    private static void build(Entry entry, BarSeriesColumns from, BarSeriesColumns to) {
+        entry.base = from.getBeginIndex();
+        entry.indices = new int[from.size() + (from.size() >> 1)]; // room for appended bars
+        merge(entry.indices, entry.base, from, to, from.getBeginIndex());
+        entry.from = from;
+        entry.to = to;
+    }
+
+    /**
+     * Maps the bars {@code from} gained since the entry's columns, and again those that may map
+     * differently now: the former last bar, which may have been replaced, and the bars that mapped to
+     * the former last bar of {@code to}, which may have been replaced or followed by bars ending
+     * before them.
+     */
+    private static void extend(Entry entry, BarSeriesColumns from, BarSeriesColumns to) {
+        int remapFrom = Math.max(from.getBeginIndex(), entry.from.getEndIndex());
+        if (entry.to != to) {
+            final int oldToEnd = entry.to.getEndIndex();
+            while (remapFrom > from.getBeginIndex() && entry.indices[remapFrom - 1 - entry.base] >= oldToEnd) {
+                remapFrom--;
+            }
+        }
+        if (from.getEndIndex() - entry.base + 1 > entry.indices.length) {
+            // Full: move the mapped bars still in the series to the front of a new array, so the maps
+            // handed out for the old array are not affected
+            final int size = from.size();
+            final int[] indices = new int[size + (size >> 1)];
+            final int keep = Math.max(0, remapFrom - from.getBeginIndex());
+            System.arraycopy(entry.indices, from.getBeginIndex() - entry.base, indices, 0, keep);
+            entry.indices = indices;
+            entry.base = from.getBeginIndex();
+        }
+        merge(entry.indices, entry.base, from, to, remapFrom);
+        entry.from = from;
+        entry.to = to;
+    }
+
+    /** Maps the bars of {@code from} from {@code fromIndex} on, continuing after the bar before it. */
+    private static void merge(int[] indices, int base, BarSeriesColumns from, BarSeriesColumns to, int fromIndex) {
+        final int toBegin = to.getBeginIndex();
+        final int toEnd = to.getEndIndex();
+        // first bar of "to" that ends after the current bar of "from"
+        int next = (fromIndex > from.getBeginIndex()) ? Math.max(toBegin, indices[fromIndex - 1 - base] + 1) : toBegin;
+        for (int index = fromIndex; index <= from.getEndIndex(); index++) {
+            final long time = from.getEndTime(index);
+            while (next <= toEnd && to.getEndTime(next) <= time) {
+                next++;
+            }
+            indices[index - base] = (next > toBegin) ? next - 1 : -1;
+        }
+    }
+
+    /**
+     * @param fromIndex the full-series index of a bar of the {@code from} series
+     * @return the full-series index of the last bar of the {@code to} series that ended at or before
+     * it, or -1 if there is none
+     */
+    int get(int fromIndex) {
+        final int index = indices[fromIndex - base];
+        return (index < toBegin) ? -1 : index; // bars removed from the front of "to" are gone
+    }
+
+    /** @return the array holding the indices, to tell whether two maps share it */
+    int[] getIndices() {
+        return indices;
+    }
+}
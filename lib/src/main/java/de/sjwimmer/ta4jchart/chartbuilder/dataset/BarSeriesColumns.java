@@ -0,0 +1,311 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.jfree.data.Range;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Columnar, primitive copy of a {@link BarSeries}: one {@code long[]} of end times and one
+ * {@code double[]} per price/volume field. It is built once per series (see {@link #of(BarSeries)})
+ * so the dynamic datasets can read a window as plain array slots instead of calling
+ * {@code getBar(i)} and converting five {@code Num}s (plus a {@code Date}) per bar on every pan.
+ * All accessors take the bar's index in the full series, i.e. the same value the index-based
+ * domain axis uses as X coordinate.
+ * <p>
+ * A series that grows (live bars appended, the last bar updated) does not rebuild its columns:
+ * {@link #of(BarSeries)} and {@link #update(BarSeries)} return new columns that share the arrays
+ * of the previous ones and only read the bars that were added plus the former last bar. Earlier
+ * columns stay valid views of the bars they were built for, except that their last bar may show
+ * the updated values. {@link #getUnchangedEndIndex(BarSeriesColumns)} tells how much of an older
+ * instance is still identical, so windows can keep what they computed for it.
+ * <p>
+ * The same holds for a series with a maximum bar count, whose begin index advances as old bars are
+ * removed: the removed bars are dropped from the front of the columns. When the arrays are full,
+ * the remaining bars are copied into new arrays with room for half as many bars again, so a capped
+ * series uses bounded memory and each appended bar costs amortized constant time. The index of the
+ * first bar the columns were originally built for stays available as {@link #getOrigin()}, which
+ * the datasets use to keep their bar groups aligned while the begin index moves.
+ */
+public final class BarSeriesColumns {
+
+    /** Columns per series; weak keys so a series that is no longer charted can be collected. */
+    private static final Map<BarSeries, BarSeriesColumns> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Source of the revisions; declared before {@link #EMPTY}, which takes one. */
+    private static final AtomicInteger REVISIONS = new AtomicInteger();
+
+    private static final BarSeriesColumns EMPTY = new BarSeriesColumns(new Object(), 0, 0, 0, 0, new long[0], new double[0],
+            new double[0], new double[0], new double[0], new double[0]);
+
+    /** Shared by all columns built by extending the same initial columns. */
+    private final Object lineage;
+    /** Begin index of the initial columns of the lineage. */
+    private final int origin;
+    /** Full-series index of the first array slot; at most {@link #beginIndex}. */
+    private final int base;
+    private final int beginIndex;
+    private final int size; // Number of bars; the arrays may be longer to leave room for appended bars
+    private final long[] endTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private final int revision = REVISIONS.incrementAndGet();
+
+    /** Optional precomputed aggregation levels, built on demand by {@link #buildPyramid()}. */
+    private volatile OhlcPyramid pyramid;
+    /** Min/max index over the lows and highs, built on the first {@link #getRange(int, int)}. */
+    private volatile MinMaxIndex rangeIndex;
+
+    private BarSeriesColumns(Object lineage, int origin, int base, int beginIndex, int size, long[] endTimes, double[] opens,
+                             double[] highs, double[] lows, double[] closes, double[] volumes) {
+        this.lineage = lineage;
+        this.origin = origin;
+        this.base = base;
+        this.beginIndex = beginIndex;
+        this.size = size;
+        this.endTimes = endTimes;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+    }
+
+    /**
+     * Returns the columns for the given series, building them on first use. The cached columns are
+     * reused as long as the series still covers the same index range; if bars were appended (or
+     * removed from the front by a maximum bar count) since they were built, they are extended, and
+     * if any other bars were removed, they are rebuilt.
+     *
+     * @param series the bar series ({@code null} yields empty columns)
+     * @return the primitive columns of the series
+     */
+    public static BarSeriesColumns of(BarSeries series) {
+        return of(series, false);
+    }
+
+    /**
+     * Like {@link #of(BarSeries)}, but also re-reads the series' last bar, which may have been
+     * replaced or modified in place since the columns were built. Call it after every live update
+     * of a series.
+     *
+     * @param series the bar series ({@code null} yields empty columns)
+     * @return the primitive columns of the series
+     */
+    public static BarSeriesColumns update(BarSeries series) {
+        return of(series, true);
+    }
+
+    private static BarSeriesColumns of(BarSeries series, boolean lastBarChanged) {
+        if (series == null || series.isEmpty()) {
+            return EMPTY;
+        }
+        synchronized (CACHE) {
+            BarSeriesColumns columns = CACHE.get(series);
+            if (columns == null || series.getBeginIndex() < columns.getBeginIndex() || series.getEndIndex() < columns.getEndIndex()) {
+                columns = build(series);
+                CACHE.put(series, columns);
+            } else if (lastBarChanged || series.getEndIndex() > columns.getEndIndex() || series.getBeginIndex() > columns.getBeginIndex()) {
+                columns = columns.extend(series);
+                CACHE.put(series, columns);
+            }
+            return columns;
+        }
+    }
+
+    private static BarSeriesColumns build(BarSeries series) {
+        final int begin = series.getBeginIndex();
+        final int size = series.getEndIndex() - begin + 1;
+        final BarSeriesColumns columns = new BarSeriesColumns(new Object(), begin, begin, begin, size, new long[size],
+                new double[size], new double[size], new double[size], new double[size], new double[size]);
+        columns.read(series, begin, series.getEndIndex());
+        return columns;
+    }
+
+    /**
+     * Returns columns for the changed series that share this instance's lineage and, if they are
+     * large enough, its arrays. Only the former last bar and the appended bars are read.
+     */
+    private BarSeriesColumns extend(BarSeries series) {
+        final int newBegin = series.getBeginIndex();
+        final int newEnd = series.getEndIndex();
+        final int newSize = newEnd - newBegin + 1;
+        BarSeriesColumns columns = this;
+        if (newEnd - base + 1 > endTimes.length) {
+            // Full: move the bars that are still in the series to the front of new arrays, so the
+            // instances sharing the old arrays are not affected
+            final int capacity = newSize + (newSize >> 1);
+            final int keep = Math.max(0, getEndIndex() - newBegin + 1); // 0 if every bar was removed since
+            final int from = newBegin - base;
+            columns = new BarSeriesColumns(lineage, origin, newBegin, newBegin, 0, copy(endTimes, from, keep, capacity),
+                    copy(opens, from, keep, capacity), copy(highs, from, keep, capacity), copy(lows, from, keep, capacity),
+                    copy(closes, from, keep, capacity), copy(volumes, from, keep, capacity));
+        }
+        columns = new BarSeriesColumns(lineage, origin, columns.base, newBegin, newSize, columns.endTimes, columns.opens,
+                columns.highs, columns.lows, columns.closes, columns.volumes);
+        final int fromIndex = Math.max(newBegin, getEndIndex());
+        columns.read(series, fromIndex, newEnd);
+        final MinMaxIndex index = this.rangeIndex;
+        if (index != null && columns.highs == highs) { // same arrays: only the read bars changed
+            index.update(lows, highs, fromIndex - base, newEnd - base + 1);
+            columns.rangeIndex = index;
+        }
+        return columns;
+    }
+
+    private static long[] copy(long[] values, int from, int count, int capacity) {
+        final long[] copy = new long[capacity];
+        if (count > 0) { // from may be beyond the array then
+            System.arraycopy(values, from, copy, 0, count);
+        }
+        return copy;
+    }
+
+    private static double[] copy(double[] values, int from, int count, int capacity) {
+        final double[] copy = new double[capacity];
+        if (count > 0) { // from may be beyond the array then
+            System.arraycopy(values, from, copy, 0, count);
+        }
+        return copy;
+    }
+
+    private void read(BarSeries series, int fromIndex, int toIndex) {
+        for (int index = fromIndex; index <= toIndex; index++) {
+            final Bar bar = series.getBar(index);
+            final int i = index - base;
+            endTimes[i] = bar.getEndTime().toInstant().toEpochMilli();
+            opens[i] = bar.getOpenPrice().doubleValue();
+            highs[i] = bar.getHighPrice().doubleValue();
+            lows[i] = bar.getLowPrice().doubleValue();
+            closes[i] = bar.getClosePrice().doubleValue();
+            volumes[i] = bar.getVolume().doubleValue();
+        }
+    }
+
+    /**
+     * Tells up to which bar these columns still hold the same values as {@code older}: all bars of
+     * older columns of the same series except their last one, which may have been updated since.
+     *
+     * @param older columns built earlier, possibly for another series
+     * @return the full-series index of the first bar that may differ, or {@link #getBeginIndex()} if
+     * the columns share nothing
+     */
+    public int getUnchangedEndIndex(BarSeriesColumns older) {
+        if (older == this) {
+            return getEndIndex() + 1;
+        }
+        if (older.lineage == lineage && older.getEndIndex() <= getEndIndex()) {
+            return Math.max(beginIndex, older.getEndIndex());
+        }
+        return beginIndex;
+    }
+
+    /**
+     * @return a number that differs between any two columns instances, so it also tells the columns
+     * before and after a live update of the last bar apart
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /** @return the object shared by all columns extended from the same initial columns */
+    Object getLineage() {
+        return lineage;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return the number of bars in the columns */
+    public int size() {
+        return size;
+    }
+
+    /** @return the full-series index of the first bar */
+    public int getBeginIndex() {
+        return beginIndex;
+    }
+
+    /**
+     * @return the begin index of the columns this instance was extended from; bars before
+     * {@link #getBeginIndex()} have been removed from the series since
+     */
+    public int getOrigin() {
+        return origin;
+    }
+
+    /** @return the full-series index of the last bar ({@code beginIndex - 1} if empty) */
+    public int getEndIndex() {
+        return beginIndex + size - 1;
+    }
+
+    /** @return the precomputed OHLC pyramid, or {@code null} if it has not been built (yet) */
+    public OhlcPyramid getPyramid() {
+        return pyramid;
+    }
+
+    /**
+     * Builds the OHLC pyramid of these columns unless it already exists. This walks every bar, so
+     * callers should run it off the event dispatch thread. The pyramid's groups start at
+     * {@link #getBeginIndex()}, so it is only used for columns whose begin index is their
+     * {@link #getOrigin()}.
+     *
+     * @return the pyramid
+     */
+    public synchronized OhlcPyramid buildPyramid() {
+        if (pyramid == null) {
+            pyramid = OhlcPyramid.build(this);
+        }
+        return pyramid;
+    }
+
+    /**
+     * Returns the lowest low and the highest high of the given bars, from an index over the columns
+     * that is built on the first call (walking every bar once) and kept up to date as the series
+     * grows, so each call costs O(log n) however many bars the range spans.
+     *
+     * @param fromIndex the full-series index of the first bar (clamped to the columns)
+     * @param toIndex the full-series index of the last bar (clamped to the columns)
+     * @return the range of the bars, or {@code null} if there are none
+     */
+    public Range getRange(int fromIndex, int toIndex) {
+        final int from = Math.max(fromIndex, beginIndex);
+        final int to = Math.min(toIndex, getEndIndex());
+        if (from > to) {
+            return null;
+        }
+        MinMaxIndex index = rangeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = rangeIndex;
+                if (index == null) {
+                    index = new MinMaxIndex(highs.length);
+                    index.update(lows, highs, beginIndex - base, getEndIndex() - base + 1);
+                    rangeIndex = index;
+                }
+            }
+        }
+        return index.getRange(lows, highs, from - base, to - base);
+    }
+
+    /** @return the approximate heap size of the base columns in bytes (without the pyramid) */
+    public long getMemoryBytes() {
+        return (long) endTimes.length * (Long.BYTES + 5 * Double.BYTES);
+    }
+
+    public long getEndTime(int index) { return endTimes[index - base]; }
+    public double getOpen(int index) { return opens[index - base]; }
+    public double getHigh(int index) { return highs[index - base]; }
+    public double getLow(int index) { return lows[index - base]; }
+    public double getClose(int index) { return closes[index - base]; }
+    public double getVolume(int index) { return volumes[index - base]; }
+}
@@ -0,0 +1,56 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.jfree.data.xy.IntervalXYDataset;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.num.Num;
+
+/**
+ * Sliding-window indicator dataset for bar charts (volume, histograms): the index-based counterpart
+ * of {@link de.sjwimmer.ta4jchart.chartbuilder.converter.TacBarDataset}. Like
+ * {@link DynamicWindowXYDataset} it only holds the bars around the visible range, with the bar index
+ * as X value, so the bars line up with the candles; each bar spans its index plus or minus half the
+ * bar width.
+ * <p>
+ * When zoomed out far enough to decimate, every point of a group spans the whole group. Bars of one
+ * series share a color, so the four overlapping bars of a group draw as one bar from the group's
+ * minimum to its maximum, which is what drawing all bars of the group would show.
+ */
+public class DynamicWindowBarDataset extends DynamicWindowXYDataset implements IntervalXYDataset {
+
+    /** Fraction of a bar slot left empty between two adjacent bars. */
+    private volatile double padding = 0.1;
+
+    public DynamicWindowBarDataset(BarSeries initialFullBarSeries, Indicator<Num> indicator, String seriesKey, int bufferBars) {
+        super(initialFullBarSeries, indicator, seriesKey, bufferBars);
+    }
+
+    /**
+     * Creates a dataset that reads the indicator values from a (possibly still computing) column.
+     * Call {@link #columnProgressed()} whenever the column reports progress.
+     */
+    public DynamicWindowBarDataset(BarSeries initialFullBarSeries, IndicatorColumn column, String seriesKey, int bufferBars) {
+        super(initialFullBarSeries, column, seriesKey, bufferBars);
+    }
+
+    public double getPadding() {
+        return padding;
+    }
+
+    public void setPadding(double padding) {
+        this.padding = padding;
+    }
+
+    private double halfBarWidth() {
+        return (1 - padding) / 2d;
+    }
+
+    @Override public Number getStartX(int series, int item) { return getStartXValue(series, item); }
+    @Override public double getStartXValue(int series, int item) { return getFirstBar(series, item) - halfBarWidth(); }
+    @Override public Number getEndX(int series, int item) { return getEndXValue(series, item); }
+    @Override public double getEndXValue(int series, int item) { return getLastBar(series, item) + halfBarWidth(); }
+    @Override public Number getStartY(int series, int item) { return getYValue(series, item); }
+    @Override public double getStartYValue(int series, int item) { return getYValue(series, item); }
+    @Override public Number getEndY(int series, int item) { return getYValue(series, item); }
+    @Override public double getEndYValue(int series, int item) { return getYValue(series, item); }
+}
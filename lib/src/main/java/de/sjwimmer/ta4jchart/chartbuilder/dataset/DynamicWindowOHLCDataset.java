@@ -2,90 +2,282 @@ package de.sjwimmer.ta4jchart.chartbuilder.dataset;
 
 import org.jfree.data.xy.AbstractXYDataset;
 import org.jfree.data.xy.OHLCDataset;
+import org.jfree.data.xy.XYRangeInfo;
 import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.general.DatasetUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.ta4j.core.Bar;
 import org.ta4j.core.BarSeries;
 
-import java.util.Date;
+import java.util.List;
 
 /**
  * Sliding-window OHLC dataset whose X coordinate is the bar's index in the full series rather than
  * its timestamp. Placing bars at consecutive integer positions keeps candles evenly spaced with no
  * gaps for periods that carry no data (weekends, holidays, market closes). Timestamps are still kept
  * for the OHLC tooltip/date lookup via {@link #indexToTimeMillis(double)}.
+ * <p>
+ * The values are read from the series' {@link BarSeriesColumns}, so the window is only an
+ * offset/length view over those columns: moving it copies nothing and allocates no {@code Num}
+ * or {@code Date}.
+ * <p>
+ * With level of detail enabled, the dataset merges {@code N} consecutive bars into one synthetic
+ * candle (first open, max high, min low, last close, summed volume) as soon as more than one bar
+ * falls into a pixel column of the data area. {@code N} is the smallest power of two that brings
+ * the visible bars down to at most one per pixel; groups are aligned to multiples of {@code N}
+ * from the series' first bar, so panning never re-groups bars and the candles do not shimmer.
+ * A synthetic candle is placed at the center index of its group, which keeps the index-based
+ * domain axis mapping intact and makes zooming back in seamless. If the columns carry a
+ * precomputed {@link OhlcPyramid}, each synthetic candle is read from the matching level instead
+ * of being merged from the bars, so a zoomed-out window costs O(pixels) instead of O(bars).
+ * <p>
+ * The current window is an immutable {@link Window} snapshot held in a volatile field. A new window
+ * can be computed on any thread with a {@link #snapshot()} of the columns, taken on the event
+ * dispatch thread, while the chart keeps rendering the published one; it is swapped in on the event
+ * dispatch thread when applied. The series, its key and its version are likewise replaced together
+ * as one immutable reference, so no method of this dataset takes a lock. Readers that need several values of the same window (a
+ * paint, the crosshair) take it once with {@link #getWindow()} and read everything from it.
  */
-public class DynamicWindowOHLCDataset extends AbstractXYDataset implements OHLCDataset, IDynamicDataset {
+public class DynamicWindowOHLCDataset extends AbstractXYDataset implements OHLCDataset, IDynamicDataset, XYRangeInfo {
 
     private static final Logger log = LoggerFactory.getLogger(DynamicWindowOHLCDataset.class);
 
-    private BarSeries fullBarSeries; // Reference to the complete BarSeries for the current timeframe
-    private String seriesKey;
+    private volatile Source source; // The complete BarSeries for the current timeframe
 
-    // Windowed data arrays
-    private Date[] dates;
-    private double[] highs;
-    private double[] lows;
-    private double[] opens;
-    private double[] closes;
-    private double[] volumes;
+    private final WindowPrefetch prefetch; // Decides how many bars to load around the visible range
 
-    private int windowStartFullIndex = -1; // Start index of the current window in the fullBarSeries
-    private int windowItemCount = 0;
+    private volatile boolean levelOfDetailEnabled = false;
+    private volatile double dataAreaWidth = 0; // Pixel width of the data area, 0 if not known yet
 
-    private final int bufferBars; // Number of additional bars to load on each side of the visible range
+    private volatile Window window = Window.empty(0);
+
+    /** The full series with its key; replaced as a whole, so a reader never pairs a series with another's version. */
+    private static final class Source {
+        final BarSeries series;
+        final String key;
+        final int version; // Incremented whenever the series is replaced
+
+        Source(BarSeries series, String key, int version) {
+            this.series = series;
+            this.key = key;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the window: either a view of raw bars over the columns or, when bars are
+     * grouped, the synthetic candles of the groups covering the window. The item getters do not
+     * check the item index; see {@link #getItemCount()}.
+     */
+    public static final class Window {
+        final int seriesVersion;
+        final BarSeriesColumns columns;
+        final int start; // Full-series index of the first bar in the window
+        final int count; // Number of bars in the window
+        final int groupSize; // Bars per synthetic candle; 1 = raw bars
+        final int startGroup; // Group number (relative to the first bar of the series) of the first candle
+        final int itemCount;
+        final SlidingWindowBuffer opens;
+        final SlidingWindowBuffer highs;
+        final SlidingWindowBuffer lows;
+        final SlidingWindowBuffer closes;
+        final SlidingWindowBuffer volumes;
+
+        Window(int seriesVersion, BarSeriesColumns columns, int start, int count, int groupSize, int startGroup, int itemCount,
+               SlidingWindowBuffer opens, SlidingWindowBuffer highs, SlidingWindowBuffer lows,
+               SlidingWindowBuffer closes, SlidingWindowBuffer volumes) {
+            this.seriesVersion = seriesVersion;
+            this.columns = columns;
+            this.start = start;
+            this.count = count;
+            this.groupSize = groupSize;
+            this.startGroup = startGroup;
+            this.itemCount = itemCount;
+            this.opens = opens;
+            this.highs = highs;
+            this.lows = lows;
+            this.closes = closes;
+            this.volumes = volumes;
+        }
+
+        static Window empty(int seriesVersion) {
+            return raw(seriesVersion, BarSeriesColumns.of(null), -1, 0);
+        }
+
+        static Window raw(int seriesVersion, BarSeriesColumns columns, int start, int count) {
+            final SlidingWindowBuffer none = SlidingWindowBuffer.EMPTY;
+            return new Window(seriesVersion, columns, start, count, 1, -1, count, none, none, none, none, none);
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        /** @return the number of bars merged into each item (1 = raw bars) */
+        public int getGroupSize() {
+            return groupSize;
+        }
+
+        /** The X of a synthetic candle is the center index of its group. */
+        public double getXValue(int item) {
+            if (groupSize > 1) {
+                return columns.getOrigin() + (startGroup + item) * (double) groupSize + (groupSize - 1) / 2.0;
+            }
+            return start + item;
+        }
+
+        public double getOpenValue(int item) { return (groupSize > 1) ? opens.get(item) : columns.getOpen(start + item); }
+        public double getHighValue(int item) { return (groupSize > 1) ? highs.get(item) : columns.getHigh(start + item); }
+        public double getLowValue(int item) { return (groupSize > 1) ? lows.get(item) : columns.getLow(start + item); }
+        public double getCloseValue(int item) { return (groupSize > 1) ? closes.get(item) : columns.getClose(start + item); }
+        public double getVolumeValue(int item) { return (groupSize > 1) ? volumes.get(item) : columns.getVolume(start + item); }
+
+        /**
+         * Maps a domain value (bar index) to the end-time millis of the nearest bar of the series
+         * this window was taken from, without looking up the series' current columns.
+         */
+        public long indexToTimeMillis(double domainValue) {
+            if (columns.isEmpty()) {
+                return (long) domainValue;
+            }
+            return columns.getEndTime(clampIndex(Math.round(domainValue), columns.getBeginIndex(), columns.getEndIndex()));
+        }
+    }
 
     public DynamicWindowOHLCDataset(BarSeries initialFullBarSeries, String seriesKey, int bufferBars) {
         if (initialFullBarSeries == null) {
             // Allow null for initial setup, but updateWindow will clear if still null
             log.warn("DynamicWindowOHLCDataset initialized with null BarSeries. Ensure it's set before use.");
-            this.fullBarSeries = null;
-        } else {
-            this.fullBarSeries = initialFullBarSeries;
         }
-        this.seriesKey = seriesKey;
-        this.bufferBars = Math.max(0, bufferBars);
-        clearWindowAndNotify(); // Initialize with empty arrays and notify
+        this.source = new Source(initialFullBarSeries, seriesKey, 0);
+        this.prefetch = new WindowPrefetch(bufferBars);
+        clearWindowAndNotify(); // Initialize with an empty window and notify
     }
 
-    public synchronized void setFullBarSeries(BarSeries newFullBarSeries, String newSeriesKey) {
-        this.fullBarSeries = newFullBarSeries;
-        this.seriesKey = newSeriesKey;
+    public void setFullBarSeries(BarSeries newFullBarSeries, String newSeriesKey) {
+        // Windows prepared for the previous series are dropped by the new version
+        this.source = new Source(newFullBarSeries, newSeriesKey, this.source.version + 1);
         // When the series changes the current window is no longer valid; a new range is expected.
         clearWindowAndNotify();
     }
 
     private void clearWindowAndNotify() {
-        clearWindowInternal();
+        this.window = Window.empty(this.source.version);
         fireDatasetChanged();
     }
 
-    private void clearWindowInternal() {
-        this.dates = new Date[0];
-        this.opens = new double[0];
-        this.highs = new double[0];
-        this.lows = new double[0];
-        this.closes = new double[0];
-        this.volumes = new double[0];
-        this.windowStartFullIndex = -1;
-        this.windowItemCount = 0;
+    /**
+     * Enables or disables merging of consecutive bars into synthetic candles when more than one bar
+     * falls into a pixel column. Takes effect on the next {@link #updateWindow(long, long)}.
+     */
+    public void setLevelOfDetailEnabled(boolean levelOfDetailEnabled) {
+        this.levelOfDetailEnabled = levelOfDetailEnabled;
+    }
+
+    public boolean isLevelOfDetailEnabled() {
+        return levelOfDetailEnabled;
+    }
+
+    /** The window is read from the columns only. */
+    @Override
+    public boolean canPrepareConcurrently() {
+        return true;
+    }
+
+    @Override
+    public void setDataAreaWidth(double widthPixels) {
+        this.dataAreaWidth = widthPixels;
+    }
+
+    @Override
+    public void setPanVelocity(double barsPerSecond) {
+        prefetch.setPanVelocity(barsPerSecond);
+    }
+
+    @Override
+    public long getWindowHits() {
+        return prefetch.getHits();
+    }
+
+    @Override
+    public long getWindowMisses() {
+        return prefetch.getMisses();
+    }
+
+    /** @return the primitive columns of the current full series */
+    public BarSeriesColumns getColumns() {
+        return BarSeriesColumns.of(source.series);
     }
 
     /**
-     * Rebuilds the visible window. The bounds are domain-axis values, which for the index-based
+     * @return the current window; it never changes, so all values read from it belong together
+     * even if the dataset publishes a new window meanwhile
+     */
+    public Window getWindow() {
+        return window;
+    }
+
+    @Override
+    public long getContentStamp() {
+        final Window w = window;
+        // the columns' revision changes with every live bar, which may have changed a cached tile
+        return (((long) w.seriesVersion << 32) | w.columns.getRevision()) * 31 + w.groupSize;
+    }
+
+    /** @return the number of bars merged into each item of the current window (1 = raw bars) */
+    public int getGroupSize() {
+        return window.groupSize;
+    }
+
+    /**
+     * Moves the visible window. The bounds are domain-axis values, which for the index-based
      * domain axis are bar indices (not timestamps).
      */
-    public synchronized void updateWindow(long lowerIndexBound, long upperIndexBound) {
-        if (fullBarSeries == null || fullBarSeries.isEmpty()) {
-            if (windowItemCount > 0) { // If it previously had data, clear it
-                clearWindowAndNotify();
+    @Override
+    public void updateWindow(long lowerIndexBound, long upperIndexBound) {
+        final PreparedWindow prepared = prepareWindow(lowerIndexBound, upperIndexBound);
+        if (prepared != null) {
+            prepared.apply();
+        }
+    }
+
+    @Override
+    public PreparedWindow prepareWindow(long lowerIndexBound, long upperIndexBound) {
+        return snapshot().prepareWindow(lowerIndexBound, upperIndexBound);
+    }
+
+    /** Takes the columns of the series; the preparer reads nothing else of the series. */
+    @Override
+    public WindowPreparer snapshot() {
+        final Source s = this.source;
+        final BarSeriesColumns columns = BarSeriesColumns.of(s.series); // extended if bars were added/removed
+        return (lowerIndexBound, upperIndexBound) -> {
+            final Window current = this.window;
+            final Window next = computeWindow(columns, s.version, current, lowerIndexBound, upperIndexBound);
+            if (next == current) {
+                return null;
             }
-            return;
+            return () -> publish(next);
+        };
+    }
+
+    private void publish(Window next) {
+        if (next.seriesVersion != this.source.version) {
+            return; // prepared for a series that has been replaced since
+        }
+        this.window = next;
+        fireDatasetChanged();
+    }
+
+    private Window computeWindow(BarSeriesColumns columns, int version, Window current, long lowerIndexBound, long upperIndexBound) {
+        if (columns.isEmpty()) {
+            // If it previously had data, clear it
+            return (current.count == 0 && current.seriesVersion == version) ? current : Window.empty(version);
         }
 
-        int begin = fullBarSeries.getBeginIndex();
-        int end = fullBarSeries.getEndIndex();
+        int begin = columns.getBeginIndex();
+        int end = columns.getEndIndex();
 
         int firstVisible = clampIndex(lowerIndexBound, begin, end);
         int lastVisible = clampIndex(upperIndexBound, begin, end);
@@ -95,43 +287,150 @@ public class DynamicWindowOHLCDataset extends AbstractXYDataset implements OHLCD
             lastVisible = tmp;
         }
 
-        int newWindowStartFullIndex = Math.max(begin, firstVisible - bufferBars);
-        int newWindowEndFullIndex = Math.min(end, lastVisible + bufferBars);
-        int newWindowItemCount = newWindowEndFullIndex - newWindowStartFullIndex + 1;
+        int newGroupSize = groupSizeFor(upperIndexBound - lowerIndexBound);
 
-        if (newWindowItemCount <= 0) {
-            clearWindowAndNotify();
-            return;
+        // Keep the loaded window as long as it still covers the visible bars
+        final boolean sameSeries = current.seriesVersion == version && current.columns == columns;
+        if (prefetch.covers(sameSeries && newGroupSize == current.groupSize, current.start, current.count, firstVisible, lastVisible)) {
+            return current;
         }
 
-        // Avoid unnecessary reloads if the window content is identical
-        if (newWindowStartFullIndex == this.windowStartFullIndex && newWindowItemCount == this.windowItemCount) {
-            return;
-        }
+        int newWindowStartFullIndex = prefetch.windowStart(begin, firstVisible, lastVisible);
+        int newWindowEndFullIndex = prefetch.windowEnd(end, firstVisible, lastVisible);
+        int newWindowItemCount = newWindowEndFullIndex - newWindowStartFullIndex + 1;
 
-        log.debug("Updating window: FullIdx [{}, {}], Items: {}", newWindowStartFullIndex, newWindowEndFullIndex, newWindowItemCount);
+        log.debug("Updating window: FullIdx [{}, {}], Items: {}, Bars per item: {}", newWindowStartFullIndex, newWindowEndFullIndex, newWindowItemCount, newGroupSize);
 
-        this.dates = new Date[newWindowItemCount];
-        this.opens = new double[newWindowItemCount];
-        this.highs = new double[newWindowItemCount];
-        this.lows = new double[newWindowItemCount];
-        this.closes = new double[newWindowItemCount];
-        this.volumes = new double[newWindowItemCount];
+        if (newGroupSize > 1) {
+            // a different grouping (or series) shares no candles with the current window, and after a
+            // live update only the groups before the first changed bar are still valid, and only
+            // those after the first removed bar if the begin index has advanced
+            final Window base = (current.seriesVersion == version && current.groupSize == newGroupSize) ? current : null;
+            final int unchangedEnd = (base == null) ? begin : columns.getUnchangedEndIndex(base.columns);
+            final int origin = columns.getOrigin();
+            final int validStart = (base == null || base.columns.getBeginIndex() == begin)
+                    ? Integer.MIN_VALUE : (begin - origin + newGroupSize - 1) / newGroupSize;
+            return slideGroups(version, columns, base, validStart, (unchangedEnd - origin) / newGroupSize,
+                    newWindowStartFullIndex, newWindowEndFullIndex, newGroupSize);
+        }
+        return Window.raw(version, columns, newWindowStartFullIndex, newWindowItemCount);
+    }
 
-        for (int i = 0; i < newWindowItemCount; i++) {
-            int fullSeriesIndex = newWindowStartFullIndex + i;
-            Bar bar = fullBarSeries.getBar(fullSeriesIndex);
-            this.dates[i] = Date.from(bar.getEndTime().toInstant());
-            this.opens[i] = bar.getOpenPrice().doubleValue();
-            this.highs[i] = bar.getHighPrice().doubleValue();
-            this.lows[i] = bar.getLowPrice().doubleValue();
-            this.closes[i] = bar.getClosePrice().doubleValue();
-            this.volumes[i] = bar.getVolume().doubleValue();
+    /**
+     * Returns how many bars to merge per synthetic candle for the given visible bar span: the
+     * smallest power of two that leaves at most one candle per pixel column, or 1 if level of detail
+     * is disabled, the data area width is unknown, or the bars already fit.
+     */
+    private int groupSizeFor(double visibleBars) {
+        return levelOfDetailEnabled ? groupSizeFor(visibleBars, dataAreaWidth) : 1;
+    }
+
+    /**
+     * @param visibleBars the number of bars spanned by the visible domain range
+     * @param dataAreaWidth the pixel width of the data area, 0 if not known yet
+     * @return the smallest power of two that is at least the number of bars per pixel column, or 1
+     * if the width is unknown or the bars already fit
+     */
+    static int groupSizeFor(double visibleBars, double dataAreaWidth) {
+        if (dataAreaWidth <= 0) {
+            return 1;
         }
+        double barsPerPixel = visibleBars / dataAreaWidth;
+        int size = 1;
+        while (size < barsPerPixel && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
 
-        this.windowStartFullIndex = newWindowStartFullIndex;
-        this.windowItemCount = newWindowItemCount;
-        fireDatasetChanged();
+    /**
+     * Builds the aggregated window covering the groups that contain the given bar range, reusing
+     * the candles it shares with {@code base} (if not {@code null}) among the groups
+     * {@code validStart} to {@code validEnd - 1}. Groups are counted from the columns' origin, so
+     * they keep their bars while the begin index advances; the first group may be partial.
+     */
+    private static Window slideGroups(int version, BarSeriesColumns columns, Window base, int validStart, int validEnd,
+                                      int firstBar, int lastBar, int size) {
+        final int origin = columns.getOrigin();
+        final int begin = columns.getBeginIndex();
+        final int end = columns.getEndIndex();
+        final int firstGroup = (firstBar - origin) / size;
+        final int groupCount = (lastBar - origin) / size - firstGroup + 1;
+        final SlidingWindowBuffer empty = SlidingWindowBuffer.EMPTY;
+
+        final SlidingWindowBuffer opens;
+        final SlidingWindowBuffer highs;
+        final SlidingWindowBuffer lows;
+        final SlidingWindowBuffer closes;
+        final SlidingWindowBuffer volumes;
+        final OhlcPyramid pyramid = columns.getPyramid();
+        if (pyramid != null && pyramid.hasGroupSize(size) && origin == begin) {
+            opens = (base == null ? empty : base.opens).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) target[offset + g] = pyramid.getOpen(size, fromGroup + g);
+            });
+            highs = (base == null ? empty : base.highs).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) target[offset + g] = pyramid.getHigh(size, fromGroup + g);
+            });
+            lows = (base == null ? empty : base.lows).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) target[offset + g] = pyramid.getLow(size, fromGroup + g);
+            });
+            closes = (base == null ? empty : base.closes).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) target[offset + g] = pyramid.getClose(size, fromGroup + g);
+            });
+            volumes = (base == null ? empty : base.volumes).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) target[offset + g] = pyramid.getVolume(size, fromGroup + g);
+            });
+        } else {
+            opens = (base == null ? empty : base.opens).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) {
+                    target[offset + g] = columns.getOpen(Math.max(begin, origin + (fromGroup + g) * size));
+                }
+            });
+            closes = (base == null ? empty : base.closes).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) {
+                    int last = Math.min(end, origin + (fromGroup + g + 1) * size - 1);
+                    target[offset + g] = columns.getClose(last);
+                }
+            });
+            highs = (base == null ? empty : base.highs).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) {
+                    int first = origin + (fromGroup + g) * size;
+                    int last = Math.min(end, first + size - 1);
+                    first = Math.max(begin, first);
+                    double high = Double.NEGATIVE_INFINITY;
+                    for (int i = first; i <= last; i++) {
+                        high = Math.max(high, columns.getHigh(i));
+                    }
+                    target[offset + g] = high;
+                }
+            });
+            lows = (base == null ? empty : base.lows).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) {
+                    int first = origin + (fromGroup + g) * size;
+                    int last = Math.min(end, first + size - 1);
+                    first = Math.max(begin, first);
+                    double low = Double.POSITIVE_INFINITY;
+                    for (int i = first; i <= last; i++) {
+                        low = Math.min(low, columns.getLow(i));
+                    }
+                    target[offset + g] = low;
+                }
+            });
+            volumes = (base == null ? empty : base.volumes).slide(firstGroup, groupCount, validStart, validEnd, (target, offset, fromGroup, count) -> {
+                for (int g = 0; g < count; g++) {
+                    int first = origin + (fromGroup + g) * size;
+                    int last = Math.min(end, first + size - 1);
+                    first = Math.max(begin, first);
+                    double volume = 0;
+                    for (int i = first; i <= last; i++) {
+                        volume += columns.getVolume(i);
+                    }
+                    target[offset + g] = volume;
+                }
+            });
+        }
+        return new Window(version, columns, firstBar, lastBar - firstBar + 1, size, firstGroup, groupCount,
+                opens, highs, lows, closes, volumes);
     }
 
     private static int clampIndex(long value, int begin, int end) {
@@ -141,37 +440,71 @@ public class DynamicWindowOHLCDataset extends AbstractXYDataset implements OHLCD
     }
 
     /** Maps a domain value (bar index) to the end-time millis of the nearest bar in the full series. */
-    public synchronized long indexToTimeMillis(double domainValue) {
-        if (fullBarSeries == null || fullBarSeries.isEmpty()) {
+    public long indexToTimeMillis(double domainValue) {
+        final BarSeriesColumns columns = BarSeriesColumns.of(source.series);
+        if (columns.isEmpty()) {
             return (long) domainValue;
         }
-        int idx = clampIndex(Math.round(domainValue), fullBarSeries.getBeginIndex(), fullBarSeries.getEndIndex());
-        return fullBarSeries.getBar(idx).getEndTime().toInstant().toEpochMilli();
+        int idx = clampIndex(Math.round(domainValue), columns.getBeginIndex(), columns.getEndIndex());
+        return columns.getEndTime(idx);
+    }
+
+    /**
+     * Returns the lowest low and highest high of the bars in the visible domain range from the
+     * columns' min/max index, so auto-ranging the price axis does not iterate the window items.
+     * When bars are merged, the range covers every bar of the candles whose X value is visible.
+     */
+    @Override
+    @SuppressWarnings("rawtypes") // the XYRangeInfo signature uses a raw List
+    public Range getRangeBounds(List visibleSeriesKeys, Range xRange, boolean includeInterval) {
+        if (!includeInterval) {
+            return DatasetUtils.iterateToFindRangeBounds(this, visibleSeriesKeys, xRange, false);
+        }
+        if (visibleSeriesKeys.isEmpty()) {
+            return null;
+        }
+        final Window w = window;
+        final int size = w.groupSize;
+        if (size > 1) {
+            final int origin = w.columns.getOrigin();
+            final double center = (size - 1) / 2.0;
+            final long firstGroup = (long) Math.ceil((xRange.getLowerBound() - origin - center) / size);
+            final long lastGroup = (long) Math.floor((xRange.getUpperBound() - origin - center) / size);
+            return w.columns.getRange(clampToInt(origin + firstGroup * size), clampToInt(origin + lastGroup * size + size - 1));
+        }
+        return w.columns.getRange(clampToInt((long) Math.ceil(xRange.getLowerBound())), clampToInt((long) Math.floor(xRange.getUpperBound())));
+    }
+
+    private static int clampToInt(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
     }
 
     // --- XYDataset and OHLCDataset implementations ---
+    // Each getter reads the window field once, so a window swapped in between two calls never mixes
+    // values of two windows within one call.
     @Override public DomainOrder getDomainOrder() { return DomainOrder.ASCENDING; }
-    @Override public int getItemCount(int series) { return (series == 0) ? windowItemCount : 0; }
+    @Override public int getItemCount(int series) { return (series == 0) ? window.itemCount : 0; }
     @Override public int getSeriesCount() { return 1; }
-    @Override public Comparable<?> getSeriesKey(int series) { return (series == 0) ? this.seriesKey : null; }
+    @Override public Comparable<?> getSeriesKey(int series) { return (series == 0) ? this.source.key : null; }
 
-    private void checkSeriesItem(int series, int item) {
+    private static Window checkSeriesItem(Window w, int series, int item) {
         if (series != 0) throw new IllegalArgumentException("Invalid series index: " + series);
-        if (item < 0 || item >= windowItemCount) throw new IndexOutOfBoundsException("Invalid item index: " + item + " for window size " + windowItemCount);
-    }
-
-    @Override public Number getX(int series, int item) { checkSeriesItem(series, item); return windowStartFullIndex + item; }
-    @Override public double getXValue(int series, int item) { checkSeriesItem(series, item); return windowStartFullIndex + item; }
-    @Override public Number getY(int series, int item) { checkSeriesItem(series, item); return closes[item]; } // Default Y for XYDataset
-    @Override public double getYValue(int series, int item) { checkSeriesItem(series, item); return closes[item]; }
-    @Override public Number getHigh(int series, int item) { checkSeriesItem(series, item); return highs[item]; }
-    @Override public double getHighValue(int series, int item) { checkSeriesItem(series, item); return highs[item]; }
-    @Override public Number getLow(int series, int item) { checkSeriesItem(series, item); return lows[item]; }
-    @Override public double getLowValue(int series, int item) { checkSeriesItem(series, item); return lows[item]; }
-    @Override public Number getOpen(int series, int item) { checkSeriesItem(series, item); return opens[item]; }
-    @Override public double getOpenValue(int series, int item) { checkSeriesItem(series, item); return opens[item]; }
-    @Override public Number getClose(int series, int item) { checkSeriesItem(series, item); return closes[item]; }
-    @Override public double getCloseValue(int series, int item) { checkSeriesItem(series, item); return closes[item]; }
-    @Override public Number getVolume(int series, int item) { checkSeriesItem(series, item); return volumes[item]; }
-    @Override public double getVolumeValue(int series, int item) { checkSeriesItem(series, item); return volumes[item]; }
+        if (item < 0 || item >= w.itemCount) throw new IndexOutOfBoundsException("Invalid item index: " + item + " for window size " + w.itemCount);
+        return w;
+    }
+
+    @Override public Number getX(int series, int item) { final Window w = checkSeriesItem(window, series, item); return (w.groupSize > 1) ? (Number) w.getXValue(item) : (Number) (w.start + item); }
+    @Override public double getXValue(int series, int item) { return checkSeriesItem(window, series, item).getXValue(item); }
+    @Override public Number getY(int series, int item) { return getCloseValue(series, item); } // Default Y for XYDataset
+    @Override public double getYValue(int series, int item) { return getCloseValue(series, item); }
+    @Override public Number getHigh(int series, int item) { return getHighValue(series, item); }
+    @Override public double getHighValue(int series, int item) { return checkSeriesItem(window, series, item).getHighValue(item); }
+    @Override public Number getLow(int series, int item) { return getLowValue(series, item); }
+    @Override public double getLowValue(int series, int item) { return checkSeriesItem(window, series, item).getLowValue(item); }
+    @Override public Number getOpen(int series, int item) { return getOpenValue(series, item); }
+    @Override public double getOpenValue(int series, int item) { return checkSeriesItem(window, series, item).getOpenValue(item); }
+    @Override public Number getClose(int series, int item) { return getCloseValue(series, item); }
+    @Override public double getCloseValue(int series, int item) { return checkSeriesItem(window, series, item).getCloseValue(item); }
+    @Override public Number getVolume(int series, int item) { return getVolumeValue(series, item); }
+    @Override public double getVolumeValue(int series, int item) { return checkSeriesItem(window, series, item).getVolumeValue(item); }
 }
@@ -1,75 +1,309 @@
 package de.sjwimmer.ta4jchart.chartbuilder.dataset;
 
 import org.jfree.data.xy.AbstractXYDataset;
+import org.jfree.data.xy.XYRangeInfo;
 import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.general.DatasetUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.num.Num;
 
+import java.util.List;
+
 /**
  * Sliding-window indicator dataset whose X coordinate is the bar's index in the full series rather
  * than its timestamp, so indicator lines stay aligned with the gap-free, index-based candles.
+ * <p>
+ * The window values live in a reusable {@link SlidingWindowBuffer}: when the window moves, the
+ * overlapping values are shifted and only the bars that newly entered the window are computed.
+ * If the dataset is backed by an {@link IndicatorColumn}, values are read from the column instead of
+ * the indicator, so no indicator is computed on the event dispatch thread; bars the column has not
+ * computed yet show as gaps, and the series key carries a "loading" suffix until it is complete.
+ * <p>
+ * With decimation enabled and the chart zoomed out so far that at least {@value #MIN_DECIMATION_GROUP}
+ * bars share a pixel column, the window switches to M4 decimation: the bars are split into
+ * power-of-two groups of about one pixel column each, and every group is reduced to four points,
+ * namely its first, minimum, maximum and last value in index order. Those four points
+ * are exactly what a line through all bars of the column would touch, so the drawn line looks the
+ * same while the renderer gets four points per pixel instead of thousands. The four slots of a group
+ * may repeat a point (e.g. when the first value is also the minimum).
+ * <p>
+ * The current window is an immutable snapshot held in a volatile field. A new window can be computed
+ * on any thread with a {@link #snapshot()} of the columns, taken on the event dispatch thread, while
+ * the chart keeps rendering the published one; it is swapped in on the event dispatch thread when
+ * applied. The series, its key and the content version are replaced together as one immutable
+ * reference as well, so the dataset takes no lock; {@link #getWindow()} hands out the window for
+ * readers that need several values of it.
  */
-public class DynamicWindowXYDataset extends AbstractXYDataset implements IDynamicDataset {
+public class DynamicWindowXYDataset extends AbstractXYDataset implements IDynamicDataset, XYRangeInfo {
     private static final Logger log = LoggerFactory.getLogger(DynamicWindowXYDataset.class);
 
-    private BarSeries fullBarSeries;
-    private final Indicator<Num> indicator;
-    private String seriesKey;
+    private final Indicator<?> indicator;
+    private final IndicatorColumn column; // null: read the indicator directly
+    private volatile Source source = new Source(null, null, 0);
+
+    /** Groups smaller than this would not yield fewer points than the raw bars. */
+    static final int MIN_DECIMATION_GROUP = 4;
+    private static final int POINTS_PER_GROUP = 4;
+
+    private volatile boolean decimationEnabled = false;
+    private volatile double dataAreaWidth = 0; // Pixel width of the data area, 0 if not known yet
+
+    private final WindowPrefetch prefetch;
 
-    private double[] yValues;
+    private volatile long lastLowerBound = 0;
+    private volatile long lastUpperBound = -1; // No window requested yet
 
-    private int windowStartFullIndex = -1;
-    private int windowItemCount = 0;
+    private volatile Window window = Window.empty(0);
 
-    private final int bufferBars;
+    /** The full series with its key, replaced as a whole. */
+    private static final class Source {
+        final BarSeries series;
+        final String key;
+        final int version; // Incremented whenever the series is replaced or the column computed more values
+
+        Source(BarSeries series, String key, int version) {
+            this.series = series;
+            this.key = key;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the window: one value per bar or, when decimated, four points per group
+     * ({@code xs} holds the bar index of each point and {@code ys} its value). The item getters do
+     * not check the item index; see {@link #getItemCount()}.
+     */
+    public static final class Window {
+        final int contentVersion;
+        final BarSeries series; // The series the window was taken from; null if empty
+        final BarSeriesColumns columns;
+        final int start; // Full-series index of the first bar in the window
+        final int count; // Number of bars in the window
+        final int groupSize; // Bars per pixel group; 1 = raw values
+        final int itemCount;
+        final SlidingWindowBuffer ys;
+        final SlidingWindowBuffer xs; // Only used when decimated
+
+        Window(int contentVersion, BarSeries series, BarSeriesColumns columns, int start, int count, int groupSize, int itemCount,
+               SlidingWindowBuffer ys, SlidingWindowBuffer xs) {
+            this.contentVersion = contentVersion;
+            this.series = series;
+            this.columns = columns;
+            this.start = start;
+            this.count = count;
+            this.groupSize = groupSize;
+            this.itemCount = itemCount;
+            this.ys = ys;
+            this.xs = xs;
+        }
+
+        static Window empty(int contentVersion) {
+            return new Window(contentVersion, null, BarSeriesColumns.of(null), -1, 0, 1, 0, SlidingWindowBuffer.EMPTY, SlidingWindowBuffer.EMPTY);
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        /** @return the number of bars reduced to one group of four points, or 1 if not decimated */
+        public int getGroupSize() {
+            return groupSize;
+        }
+
+        public double getXValue(int item) {
+            return (groupSize > 1) ? xs.get(item) : start + item;
+        }
+
+        public double getYValue(int item) {
+            return ys.get(item);
+        }
+
+        /** @return the full-series index of the first bar of the item's group (the item's bar if raw) */
+        double firstBar(int item) {
+            return (groupSize > 1) ? xs.get(item - item % POINTS_PER_GROUP) : start + item;
+        }
+
+        /** @return the full-series index of the last bar of the item's group (the item's bar if raw) */
+        double lastBar(int item) {
+            return (groupSize > 1) ? xs.get(item - item % POINTS_PER_GROUP + POINTS_PER_GROUP - 1) : start + item;
+        }
+    }
 
     public DynamicWindowXYDataset(BarSeries initialFullBarSeries, Indicator<Num> indicator, String seriesKey, int bufferBars) {
+        this(initialFullBarSeries, indicator, null, seriesKey, bufferBars);
+    }
+
+    /**
+     * Creates a dataset that reads the indicator values from a (possibly still computing) column.
+     * Call {@link #columnProgressed()} whenever the column reports progress.
+     */
+    public DynamicWindowXYDataset(BarSeries initialFullBarSeries, IndicatorColumn column, String seriesKey, int bufferBars) {
+        this(initialFullBarSeries, column.getIndicator(), column, seriesKey, bufferBars);
+    }
+
+    private DynamicWindowXYDataset(BarSeries initialFullBarSeries, Indicator<?> indicator, IndicatorColumn column,
+                                   String seriesKey, int bufferBars) {
         this.indicator = indicator;
-        this.seriesKey = seriesKey;
-        this.bufferBars = Math.max(0, bufferBars);
+        this.column = column;
+        this.prefetch = new WindowPrefetch(bufferBars);
         setFullBarSeries(initialFullBarSeries, seriesKey);
     }
 
+    /** @return the column the values are read from, or {@code null} if the indicator is read directly */
+    public IndicatorColumn getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the current window; it never changes, so all values read from it belong together
+     * even if the dataset publishes a new window meanwhile
+     */
+    public Window getWindow() {
+        return window;
+    }
+
+    /**
+     * Reloads the current window after the backing column computed more values, replacing the
+     * placeholders of bars that became ready, and notifies listeners (also to update the progress
+     * shown in the series key). Must be called on the event dispatch thread.
+     */
+    public void columnProgressed() {
+        final Source s = this.source;
+        this.source = new Source(s.series, s.key, s.version + 1); // windows still being prepared may hold placeholders: drop them
+        final long lower = this.lastLowerBound;
+        final long upper = this.lastUpperBound;
+        this.window = Window.empty(s.version + 1);
+        if (upper >= lower) {
+            updateWindow(lower, upper); // notifies listeners
+        } else {
+            fireDatasetChanged();
+        }
+    }
+
     @Override
-    public synchronized void setFullBarSeries(BarSeries newFullBarSeries, String newSeriesKey) {
-        this.fullBarSeries = newFullBarSeries;
-        this.seriesKey = newSeriesKey;
-        if (this.fullBarSeries != null && !this.fullBarSeries.isEmpty()
-                && this.indicator.getBarSeries() != this.fullBarSeries) {
-            log.warn("Indicator's bar series does not match the new bar series for {}", seriesKey);
+    public void setFullBarSeries(BarSeries newFullBarSeries, String newSeriesKey) {
+        this.source = new Source(newFullBarSeries, newSeriesKey, this.source.version + 1);
+        if (newFullBarSeries != null && !newFullBarSeries.isEmpty()
+                && this.indicator.getBarSeries() != newFullBarSeries) {
+            log.warn("Indicator's bar series does not match the new bar series for {}", newSeriesKey);
         }
         clearWindowAndNotify();
     }
 
     private void clearWindowAndNotify() {
-        clearWindowInternal();
+        this.window = Window.empty(this.source.version);
         fireDatasetChanged();
     }
 
-    private void clearWindowInternal() {
-        this.yValues = new double[0];
-        this.windowStartFullIndex = -1;
-        this.windowItemCount = 0;
+    /**
+     * Enables or disables M4 decimation of the window when the chart is zoomed out (disabled by
+     * default). Takes effect with the next window update.
+     */
+    public void setDecimationEnabled(boolean decimationEnabled) {
+        this.decimationEnabled = decimationEnabled;
+    }
+
+    public boolean isDecimationEnabled() {
+        return decimationEnabled;
+    }
+
+    /** A window read from a column copies computed values; reading the indicator directly computes them. */
+    @Override
+    public boolean canPrepareConcurrently() {
+        return column != null;
+    }
+
+    @Override
+    public void setDataAreaWidth(double widthPixels) {
+        this.dataAreaWidth = widthPixels;
+    }
+
+    @Override
+    public void setPanVelocity(double barsPerSecond) {
+        prefetch.setPanVelocity(barsPerSecond);
+    }
+
+    @Override
+    public long getWindowHits() {
+        return prefetch.getHits();
+    }
+
+    @Override
+    public long getWindowMisses() {
+        return prefetch.getMisses();
+    }
+
+    @Override
+    public long getContentStamp() {
+        final Window w = window;
+        // the columns' revision changes with every live bar, which may have changed a cached tile
+        return (((long) w.contentVersion << 32) | w.columns.getRevision()) * 31 + w.groupSize;
+    }
+
+    /** @return the number of bars reduced to one group of four points, or 1 if the window is not decimated */
+    public int getGroupSize() {
+        return window.groupSize;
     }
 
     /**
-     * Rebuilds the visible window. The bounds are domain-axis values, which for the index-based
+     * Moves the visible window. The bounds are domain-axis values, which for the index-based
      * domain axis are bar indices (not timestamps).
      */
     @Override
-    public synchronized void updateWindow(long lowerIndexBound, long upperIndexBound) {
-        if (fullBarSeries == null || fullBarSeries.isEmpty()) {
-            if (windowItemCount > 0) {
-                clearWindowAndNotify();
+    public void updateWindow(long lowerIndexBound, long upperIndexBound) {
+        final PreparedWindow prepared = prepareWindow(lowerIndexBound, upperIndexBound);
+        if (prepared != null) {
+            prepared.apply();
+        }
+    }
+
+    @Override
+    public PreparedWindow prepareWindow(long lowerIndexBound, long upperIndexBound) {
+        return snapshot().prepareWindow(lowerIndexBound, upperIndexBound);
+    }
+
+    /**
+     * Takes the columns of the chart's series and, for an indicator of another timeframe, of the
+     * indicator's series; the preparer reads nothing else of either series.
+     */
+    @Override
+    public WindowPreparer snapshot() {
+        final Source s = this.source;
+        final BarSeriesColumns columns = BarSeriesColumns.of(s.series);
+        final BarSeries indicatorSeries = indicator.getBarSeries();
+        final BarSeriesColumns indicatorColumns = (indicatorSeries != s.series) ? BarSeriesColumns.of(indicatorSeries) : null;
+        return (lowerIndexBound, upperIndexBound) -> {
+            this.lastLowerBound = lowerIndexBound;
+            this.lastUpperBound = upperIndexBound;
+            final Window current = this.window;
+            final Window next = computeWindow(s.series, columns, indicatorColumns, s.version, current, lowerIndexBound, upperIndexBound);
+            if (next == current) {
+                return null;
             }
-            return;
+            return () -> publish(next);
+        };
+    }
+
+    private void publish(Window next) {
+        if (next.contentVersion != this.source.version) {
+            return; // prepared for a series (or column state) that has been replaced since
+        }
+        this.window = next;
+        fireDatasetChanged();
+    }
+
+    private Window computeWindow(BarSeries series, BarSeriesColumns columns, BarSeriesColumns indicatorColumns, int version,
+                                 Window current, long lowerIndexBound, long upperIndexBound) {
+        if (columns.isEmpty()) {
+            return (current.count == 0 && current.contentVersion == version) ? current : Window.empty(version);
         }
 
-        int begin = fullBarSeries.getBeginIndex();
-        int end = fullBarSeries.getEndIndex();
+        int begin = columns.getBeginIndex();
+        int end = columns.getEndIndex();
 
         int firstVisible = clampIndex(lowerIndexBound, begin, end);
         int lastVisible = clampIndex(upperIndexBound, begin, end);
@@ -79,48 +313,152 @@ public class DynamicWindowXYDataset extends AbstractXYDataset implements IDynami
             lastVisible = tmp;
         }
 
-        int newWindowStartFullIndex = Math.max(begin, firstVisible - bufferBars);
-        int newWindowEndFullIndex = Math.min(end, lastVisible + bufferBars);
-        int newWindowItemCount = newWindowEndFullIndex - newWindowStartFullIndex + 1;
-
-        if (newWindowItemCount <= 0) {
-            clearWindowAndNotify();
-            return;
+        int newGroupSize = decimationEnabled
+                ? DynamicWindowOHLCDataset.groupSizeFor(upperIndexBound - lowerIndexBound, dataAreaWidth) : 1;
+        if (newGroupSize < MIN_DECIMATION_GROUP) {
+            newGroupSize = 1;
         }
 
-        if (newWindowStartFullIndex == this.windowStartFullIndex && newWindowItemCount == this.windowItemCount) {
-            return;
+        final boolean sameContent = current.contentVersion == version && current.columns == columns;
+        if (prefetch.covers(sameContent && newGroupSize == current.groupSize, current.start, current.count, firstVisible, lastVisible)) {
+            return current;
         }
 
-        log.debug("Updating XY window: FullIdx [{}, {}], Items: {}, Key: {}",
-                newWindowStartFullIndex, newWindowEndFullIndex, newWindowItemCount, this.seriesKey);
+        int newWindowStartFullIndex = prefetch.windowStart(begin, firstVisible, lastVisible);
+        int newWindowEndFullIndex = prefetch.windowEnd(end, firstVisible, lastVisible);
+        int newWindowItemCount = newWindowEndFullIndex - newWindowStartFullIndex + 1;
 
-        this.yValues = new double[newWindowItemCount];
+        log.debug("Updating XY window: FullIdx [{}, {}], Items: {}, Bars per group: {}, Key: {}",
+                newWindowStartFullIndex, newWindowEndFullIndex, newWindowItemCount, newGroupSize, this.source.key);
 
-        // The indicator is computed on its own bar series, which may differ from the chart's current
-        // series after a timeframe switch (e.g. an M15 channel shown on a D1/M1 chart). When they
-        // differ, indexing the indicator with the chart's index reads an unrelated bar and the line
-        // lands far from the candles, so align by time instead: each candle shows the indicator value
-        // that was current at the candle's close.
-        BarSeries indicatorSeries = indicator.getBarSeries();
-        boolean sameSeries = (indicatorSeries == fullBarSeries);
+        // a different grouping (or content) shares no values with the current window, and after a
+        // live update only the values before the first changed bar are still valid (and only the
+        // groups after the first removed bar, if the begin index has advanced)
+        final Window base = (current.contentVersion == version && current.groupSize == newGroupSize) ? current : null;
+        final int unchangedEnd = (base == null) ? begin : columns.getUnchangedEndIndex(base.columns);
+        final ValueSource values = new ValueSource(columns, indicatorColumns);
+        if (newGroupSize > 1) {
+            final int origin = columns.getOrigin();
+            final int validStart = (base == null || base.columns.getBeginIndex() == begin)
+                    ? Integer.MIN_VALUE : (begin - origin + newGroupSize - 1) / newGroupSize * POINTS_PER_GROUP;
+            return slideDecimated(version, series, columns, base, validStart, (unchangedEnd - origin) / newGroupSize * POINTS_PER_GROUP,
+                    values, newWindowStartFullIndex, newWindowEndFullIndex, newGroupSize);
+        }
+        final SlidingWindowBuffer ys = (base == null ? SlidingWindowBuffer.EMPTY : base.ys).slide(
+                newWindowStartFullIndex, newWindowItemCount, Integer.MIN_VALUE, unchangedEnd, (target, offset, fromIndex, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        target[offset + i] = values.valueAt(fromIndex + i);
+                    }
+                });
+        log.trace("XY window {} moved, computed {} of {} values", this.source.key, ys.getLastFilledCount(), newWindowItemCount);
+        return new Window(version, series, columns, newWindowStartFullIndex, newWindowItemCount, 1, newWindowItemCount, ys, SlidingWindowBuffer.EMPTY);
+    }
 
-        for (int i = 0; i < newWindowItemCount; i++) {
-            int fullSeriesIndex = newWindowStartFullIndex + i;
-            if (sameSeries) {
-                this.yValues[i] = indicator.getValue(fullSeriesIndex).doubleValue();
-            } else {
-                long timeMillis = fullBarSeries.getBar(fullSeriesIndex).getEndTime().toInstant().toEpochMilli();
-                int indicatorIndex = asOfIndexForTime(indicatorSeries, timeMillis);
-                this.yValues[i] = (indicatorIndex >= 0)
-                        ? indicator.getValue(indicatorIndex).doubleValue()
-                        : Double.NaN;
+    /**
+     * Builds the decimated window covering the groups containing the given bar range, reusing the
+     * points it shares with {@code base} (if not {@code null}) from position {@code validStart} to
+     * {@code validEnd - 1}. Group {@code g} (counted from the columns' origin) occupies the four
+     * positions starting at {@code g * 4}.
+     */
+    private static Window slideDecimated(int version, BarSeries series, BarSeriesColumns columns, Window base, int validStart, int validEnd,
+                                         ValueSource values, int firstBar, int lastBar, int size) {
+        final int origin = columns.getOrigin();
+        final int begin = columns.getBeginIndex();
+        final int end = columns.getEndIndex();
+        final int firstGroup = (firstBar - origin) / size;
+        final int groupCount = (lastBar - origin) / size - firstGroup + 1;
+        final int start = firstGroup * POINTS_PER_GROUP;
+        final int count = groupCount * POINTS_PER_GROUP;
+
+        // The slide of both buffers fills the same positions, since they always move together. X is
+        // filled first, so the Y filler can read back which bar each new point stands for.
+        final SlidingWindowBuffer xs = (base == null ? SlidingWindowBuffer.EMPTY : base.xs).slide(start, count, validStart, validEnd, (target, offset, fromPosition, positions) -> {
+            for (int p = 0; p < positions; p += POINTS_PER_GROUP) {
+                int first = origin + ((fromPosition + p) / POINTS_PER_GROUP) * size;
+                int last = Math.min(end, first + size - 1);
+                first = Math.max(begin, first);
+                int minIndex = first;
+                int maxIndex = first;
+                int nanIndex = -1;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                double firstValue = Double.NaN;
+                double value = Double.NaN;
+                for (int i = first; i <= last; i++) {
+                    value = values.valueAt(i);
+                    if (i == first) {
+                        firstValue = value;
+                    }
+                    if (Double.isNaN(value)) {
+                        if (nanIndex < 0) {
+                            nanIndex = i;
+                        }
+                    } else {
+                        if (value < min) {
+                            min = value;
+                            minIndex = i;
+                        }
+                        if (value > max) {
+                            max = value;
+                            maxIndex = i;
+                        }
+                    }
+                }
+                if (nanIndex > first && !Double.isNaN(value)) {
+                    // A gap between two values: emit one of its NaN bars in place of the extreme
+                    // nearer to the group's ends, so the line breaks instead of bridging the gap
+                    final double middle = (firstValue + value) / 2;
+                    if (max - middle >= middle - min) {
+                        minIndex = nanIndex;
+                    } else {
+                        maxIndex = nanIndex;
+                    }
+                }
+                target[offset + p] = first;
+                target[offset + p + 1] = Math.min(minIndex, maxIndex);
+                target[offset + p + 2] = Math.max(minIndex, maxIndex);
+                target[offset + p + 3] = last;
+            }
+        });
+        final SlidingWindowBuffer ys = (base == null ? SlidingWindowBuffer.EMPTY : base.ys).slide(start, count, validStart, validEnd, (target, offset, fromPosition, positions) -> {
+            for (int p = 0; p < positions; p++) {
+                target[offset + p] = values.valueAt((int) xs.get(offset + p));
             }
+        });
+        return new Window(version, series, columns, firstBar, lastBar - firstBar + 1, size, count, ys, xs);
+    }
+
+    /**
+     * Reads the indicator value for a chart bar, for the columns a window is being prepared for.
+     * <p>
+     * The indicator is computed on its own bar series, which may differ from the chart's current
+     * series after a timeframe switch (e.g. an M15 channel shown on a D1/M1 chart). When they
+     * differ, indexing the indicator with the chart's index reads an unrelated bar and the line
+     * lands far from the candles, so align by time instead: each candle shows the indicator value
+     * that was current at the candle's close. The alignment is looked up in a precomputed
+     * {@link AsOfIndexMap}, so it costs one array read per bar.
+     */
+    private final class ValueSource {
+        private final AsOfIndexMap asOf; // null: same series, indices match
+
+        /** @param indicatorColumns the columns of the indicator's series, or {@code null} if it is the chart's series */
+        ValueSource(BarSeriesColumns chartColumns, BarSeriesColumns indicatorColumns) {
+            this.asOf = (indicatorColumns != null) ? AsOfIndexMap.of(chartColumns, indicatorColumns) : null;
         }
 
-        this.windowStartFullIndex = newWindowStartFullIndex;
-        this.windowItemCount = newWindowItemCount;
-        fireDatasetChanged();
+        double valueAt(int fullSeriesIndex) {
+            int indicatorIndex = fullSeriesIndex;
+            if (asOf != null) {
+                indicatorIndex = asOf.get(fullSeriesIndex);
+                if (indicatorIndex < 0) {
+                    return Double.NaN;
+                }
+            }
+            if (column != null) {
+                return column.getValue(indicatorIndex);
+            }
+            return ((Num) indicator.getValue(indicatorIndex)).doubleValue();
+        }
     }
 
     private static int clampIndex(long value, int begin, int end) {
@@ -129,47 +467,68 @@ public class DynamicWindowXYDataset extends AbstractXYDataset implements IDynami
         return (int) value;
     }
 
+    @Override public DomainOrder getDomainOrder() { return DomainOrder.ASCENDING; }
+    @Override public int getItemCount(int series) { return (series == 0) ? window.itemCount : 0; }
+    @Override public int getSeriesCount() { return 1; }
+    @Override public Comparable<?> getSeriesKey(int series) {
+        if (series != 0) return null;
+        final String key = this.source.key;
+        if (column != null && !column.isComplete()) {
+            return key + " (loading " + (int) (column.getProgress() * 100) + "%)";
+        }
+        return key;
+    }
+
     /**
-     * Returns the index of the last bar in {@code series} whose end time is at or before
-     * {@code timeMillis} (an "as-of" lookup), or -1 if the time precedes the series' first bar or
-     * the series is empty. Used to align an indicator computed on one timeframe with candles on
-     * another so each candle shows the indicator value that was current at its close.
+     * Returns the lowest and highest value of the bars in the visible domain range. For a dataset
+     * backed by a column, this is answered by the column's min/max index; otherwise the window items
+     * are iterated.
      */
-    private static int asOfIndexForTime(BarSeries series, long timeMillis) {
-        if (series == null || series.isEmpty()) {
-            return -1;
-        }
-        int begin = series.getBeginIndex();
-        int end = series.getEndIndex();
-        if (timeMillis < series.getBar(begin).getEndTime().toInstant().toEpochMilli()) {
-            return -1;
-        }
-        int low = begin;
-        int high = end;
-        while (low < high) {
-            int mid = low + (high - low + 1) / 2; // upper mid to converge on the last matching bar
-            long midTime = series.getBar(mid).getEndTime().toInstant().toEpochMilli();
-            if (midTime <= timeMillis) {
-                low = mid;
-            } else {
-                high = mid - 1;
+    @Override
+    @SuppressWarnings("rawtypes") // the XYRangeInfo signature uses a raw List
+    public Range getRangeBounds(List visibleSeriesKeys, Range xRange, boolean includeInterval) {
+        final Window w = window;
+        final BarSeriesColumns columns = w.columns;
+        if (column == null) {
+            return DatasetUtils.iterateToFindRangeBounds(this, visibleSeriesKeys, xRange, includeInterval);
+        }
+        if (visibleSeriesKeys.isEmpty() || columns.isEmpty()) {
+            return null;
+        }
+        int first = (int) Math.max(columns.getBeginIndex(), Math.ceil(xRange.getLowerBound()));
+        int last = (int) Math.min(columns.getEndIndex(), Math.floor(xRange.getUpperBound()));
+        if (first > last) {
+            return null;
+        }
+        final BarSeries indicatorSeries = indicator.getBarSeries();
+        if (indicatorSeries != w.series) { // indicator of another timeframe, see ValueSource
+            final BarSeriesColumns indicatorColumns = BarSeriesColumns.of(indicatorSeries);
+            final AsOfIndexMap asOf = AsOfIndexMap.of(columns, indicatorColumns);
+            last = asOf.get(last);
+            // bars before the indicator's first bar have no value (NaN in the window), skip them
+            first = Math.max(indicatorColumns.getBeginIndex(), asOf.get(first));
+            if (first > last) {
+                return null;
             }
         }
-        return low;
+        return column.getRange(first, last);
     }
 
-    @Override public DomainOrder getDomainOrder() { return DomainOrder.ASCENDING; }
-    @Override public int getItemCount(int series) { return (series == 0) ? windowItemCount : 0; }
-    @Override public int getSeriesCount() { return 1; }
-    @Override public Comparable<?> getSeriesKey(int series) { return (series == 0) ? this.seriesKey : null; }
-
-    private void checkSeriesItem(int series, int item) {
+    // Each getter reads the window field once, so a window swapped in between two calls never mixes
+    // values of two windows within one call.
+    private static Window checkSeriesItem(Window w, int series, int item) {
         if (series != 0) throw new IllegalArgumentException("Invalid series index: " + series);
-        if (item < 0 || item >= windowItemCount) throw new IndexOutOfBoundsException("Invalid item index: " + item + " for window size " + windowItemCount);
+        if (item < 0 || item >= w.itemCount) throw new IndexOutOfBoundsException("Invalid item index: " + item + " for window size " + w.itemCount);
+        return w;
     }
 
-    @Override public Number getX(int series, int item) { checkSeriesItem(series, item); return windowStartFullIndex + item; }
-    @Override public double getXValue(int series, int item) { checkSeriesItem(series, item); return windowStartFullIndex + item; }
-    @Override public Number getY(int series, int item) { checkSeriesItem(series, item); return yValues[item]; }
-    @Override public double getYValue(int series, int item) { checkSeriesItem(series, item); return yValues[item]; }
+    @Override public Number getX(int series, int item) { return getXValue(series, item); }
+    @Override public double getXValue(int series, int item) { return checkSeriesItem(window, series, item).getXValue(item); }
+    @Override public Number getY(int series, int item) { return getYValue(series, item); }
+    @Override public double getYValue(int series, int item) { return checkSeriesItem(window, series, item).getYValue(item); }
+
+    /** @return the full-series index of the first bar the item stands for */
+    double getFirstBar(int series, int item) { return checkSeriesItem(window, series, item).firstBar(item); }
+    /** @return the full-series index of the last bar the item stands for */
+    double getLastBar(int series, int item) { return checkSeriesItem(window, series, item).lastBar(item); }
 }
@@ -3,6 +3,98 @@ package de.sjwimmer.ta4jchart.chartbuilder.dataset;
 import org.ta4j.core.BarSeries;
 
 public interface IDynamicDataset {
+
+    /** A window computed by {@link #prepareWindow(long, long)}, waiting to be published. */
+    interface PreparedWindow {
+        /**
+         * Publishes the window and notifies the dataset's listeners. Must be called on the event
+         * dispatch thread. A window prepared before the dataset's series was replaced is dropped.
+         */
+        void apply();
+    }
+
+    /** Computes windows from what {@link #snapshot()} took from the bar series. */
+    interface WindowPreparer {
+        /**
+         * @return the prepared window, or {@code null} if the window would not change
+         * @see IDynamicDataset#prepareWindow(long, long)
+         */
+        PreparedWindow prepareWindow(long lowerBound, long upperBound);
+    }
+
     void updateWindow(long visibleStartMillis, long visibleEndMillis);
     void setFullBarSeries(BarSeries newFullBarSeries, String newSeriesKey);
-}
\ No newline at end of file
+
+    /**
+     * Computes the window for the given domain bounds without publishing it, so the work can run
+     * off the event dispatch thread while the current window keeps rendering. Implementations that
+     * cannot prepare a window in the background do all the work in {@link PreparedWindow#apply()}.
+     *
+     * @return the prepared window, or {@code null} if the window would not change
+     */
+    default PreparedWindow prepareWindow(long lowerBound, long upperBound) {
+        return () -> updateWindow(lowerBound, upperBound);
+    }
+
+    /**
+     * Takes what preparing a window reads from the bar series, on the calling thread, which must be
+     * the event dispatch thread: live updates modify the series there, and ta4j's series is not
+     * thread-safe. The returned preparer only reads the snapshot, so datasets that
+     * {@link #canPrepareConcurrently() can prepare concurrently} can compute their window with it on
+     * any thread.
+     *
+     * @return a preparer computing windows from the current state of the series
+     */
+    default WindowPreparer snapshot() {
+        return this::prepareWindow;
+    }
+
+    /**
+     * @return whether the {@link #snapshot()} preparer may run while the windows of other datasets
+     * are prepared on other threads; not if it computes indicator values, since ta4j's caches are not
+     * safe to fill concurrently
+     */
+    default boolean canPrepareConcurrently() {
+        return false;
+    }
+
+    /**
+     * Tells the dataset how many pixels the domain axis currently spans, so it can decide how much
+     * detail is worth loading. Takes effect on the next {@link #updateWindow(long, long)}.
+     *
+     * @param widthPixels the width of the data area in pixels
+     */
+    default void setDataAreaWidth(double widthPixels) {
+    }
+
+    /**
+     * Tells the dataset how fast and in which direction the chart is being panned, so it can load
+     * more bars ahead of the motion. Takes effect on the next window that has to be loaded.
+     *
+     * @param barsPerSecond the pan velocity in bars per second; positive when panning towards newer
+     *                      bars, negative towards older ones, 0 when the chart is not being panned
+     */
+    default void setPanVelocity(double barsPerSecond) {
+    }
+
+    /**
+     * @return a stamp of what the dataset shows for the bars it has loaded: it changes when the series
+     * is replaced, a bar is appended or updated, more values are computed or the level of detail changes,
+     * but not when the window only moves, so a drawing of some bars can be reused as long as the stamp
+     * stays the same; -1 if the dataset cannot tell, in which case every change has to be treated as new
+     * content
+     */
+    default long getContentStamp() {
+        return -1;
+    }
+
+    /** @return how many window updates were served by the already loaded window */
+    default long getWindowHits() {
+        return 0;
+    }
+
+    /** @return how many window updates had to load a new window */
+    default long getWindowMisses() {
+        return 0;
+    }
+}
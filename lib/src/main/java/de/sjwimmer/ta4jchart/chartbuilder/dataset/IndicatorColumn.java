@@ -0,0 +1,286 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.jfree.data.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.num.Num;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Primitive copy of an indicator's values, aligned with the {@link BarSeriesColumns} of the
+ * indicator's bar series (same full-series indices). The values are computed once, in index order,
+ * by {@link #compute(Runnable)}, usually on a background thread, so the chart
+ * never runs a long recursive ta4j computation on the event dispatch thread. Computing in index
+ * order also fills recursive indicators (EMA, Parabolic SAR, ...) bottom-up instead of descending
+ * thousands of levels deep on a cold cache.
+ * <p>
+ * Bars are computed from the first index on; {@link #getValue(int)} returns {@code NaN} for bars
+ * that are not ready yet, and {@link #getProgress()} tells how far the computation got.
+ * <p>
+ * When bars are appended to the series or its last bar is updated, {@link #barsChanged()} grows the
+ * column and marks the new values (and the value of the former last bar) to be computed by the next
+ * {@link #compute(Runnable)}. Bars removed from the front of a series with a maximum bar count are
+ * dropped from the column: when its array is full, the remaining values are copied to the front of
+ * a new array, so the column of a capped series does not grow.
+ */
+public final class IndicatorColumn {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicatorColumn.class);
+
+    /** Bars computed between two checks for cancellation and progress reports. */
+    private static final int CHUNK_BARS = 4096;
+    /** Minimum time between two progress reports. */
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+
+    /** Value array and the full-series index of its first slot, replaced together. */
+    private static final class Storage {
+        final int base;
+        final double[] values;
+
+        Storage(int base, double[] values) {
+            this.base = base;
+            this.values = values;
+        }
+    }
+
+    private final Indicator<?> indicator;
+    private volatile Storage storage;
+    /** Full-series index of the first bar the column covers. */
+    private volatile int beginIndex;
+    /** Full-series index after the last bar the column covers. */
+    private volatile int endIndex;
+
+    /** Values from {@link #beginIndex} to {@code readyEnd - 1} are computed; written after the values. */
+    private volatile int readyEnd;
+    /** Lowest index invalidated by {@link #barsChanged()} while a chunk was being computed (guarded by this). */
+    private int invalidatedFrom = Integer.MAX_VALUE;
+    /** Min/max index over {@link #indexStorage}, built on the first {@link #getRange(int, int)} (guarded by this). */
+    private MinMaxIndex index;
+    private Storage indexStorage;
+    /** Values from the storage's base to {@code indexedEnd - 1} are in the index (guarded by this). */
+    private int indexedEnd;
+    private volatile boolean cancelled = false;
+    private volatile boolean failed = false;
+    private final AtomicBoolean computing = new AtomicBoolean();
+    private final AtomicBoolean progressPending = new AtomicBoolean();
+
+    public IndicatorColumn(Indicator<?> indicator) {
+        this.indicator = indicator;
+        final BarSeries series = indicator.getBarSeries();
+        if (series == null || series.isEmpty()) {
+            this.beginIndex = 0;
+            this.endIndex = 0;
+        } else {
+            this.beginIndex = series.getBeginIndex();
+            this.endIndex = series.getEndIndex() + 1;
+        }
+        this.readyEnd = beginIndex;
+        this.storage = new Storage(beginIndex, new double[endIndex - beginIndex]);
+    }
+
+    public Indicator<?> getIndicator() {
+        return indicator;
+    }
+
+    /** @return the bar series the values are aligned with */
+    public BarSeries getBarSeries() {
+        return indicator.getBarSeries();
+    }
+
+    /**
+     * Computes all values on the calling thread. The {@code onProgress} callback is invoked on the
+     * event dispatch thread while the computation advances (at most every 100 ms) and once more when
+     * it has finished; it is not invoked after {@link #cancel()}. If another thread is computing the
+     * column already, this returns immediately and that thread computes the remaining values.
+     *
+     * @param onProgress called on the event dispatch thread when more values are ready (may be {@code null})
+     */
+    public void compute(Runnable onProgress) {
+        // Bars may be added while computing: check again after releasing the flag, so values
+        // requested by a barsChanged() that saw the flag still set are not left uncomputed.
+        while (!cancelled && !failed && readyEnd < endIndex && computing.compareAndSet(false, true)) {
+            try {
+                computeChunks(onProgress);
+            } finally {
+                computing.set(false);
+            }
+            reportProgress(onProgress);
+        }
+    }
+
+    private void computeChunks(Runnable onProgress) {
+        long lastReport = System.nanoTime();
+        try {
+            while (!cancelled) {
+                final int from;
+                final int to;
+                final Storage target;
+                synchronized (this) {
+                    from = Math.max(readyEnd, beginIndex);
+                    to = Math.min(endIndex, from + CHUNK_BARS);
+                    target = storage;
+                    invalidatedFrom = Integer.MAX_VALUE;
+                }
+                if (from >= to) {
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    target.values[i - target.base] = toDouble(indicator.getValue(i));
+                }
+                synchronized (this) {
+                    final Storage current = storage;
+                    final int copyFrom = Math.max(from, current.base);
+                    if (current != target && copyFrom < to) { // grown or compacted meanwhile
+                        System.arraycopy(target.values, copyFrom - target.base, current.values, copyFrom - current.base, to - copyFrom);
+                    }
+                    // Values of bars that changed while computing them are computed again
+                    readyEnd = Math.min(to, invalidatedFrom);
+                }
+                if (System.nanoTime() - lastReport > PROGRESS_INTERVAL_NANOS) {
+                    lastReport = System.nanoTime();
+                    reportProgress(onProgress);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to compute indicator {}", indicator, e);
+            failed = true;
+        }
+    }
+
+    /**
+     * Adapts the column to bars appended to the series, an update of its last bar or bars removed
+     * from its front. Must be called on the thread that modifies the series (usually the event
+     * dispatch thread), after the modification. ta4j's bar series is not thread-safe, so the
+     * series must not be modified while this or another column of the series is being computed.
+     * The new values are not computed here: call {@link #compute(Runnable)} afterwards, on the
+     * thread that computes the indicators sharing sub-indicators with this one.
+     */
+    public void barsChanged() {
+        final BarSeries series = indicator.getBarSeries();
+        if (series == null || series.isEmpty()) {
+            return;
+        }
+        final int newBegin = series.getBeginIndex();
+        final int newEnd = series.getEndIndex() + 1;
+        synchronized (this) {
+            if (newBegin < beginIndex || newEnd < endIndex) {
+                return; // not an update of the bars this column was created for
+            }
+            final Storage current = storage;
+            if (newEnd - current.base > current.values.length) {
+                // Full: move the values of the remaining bars to the front of a new array
+                final int size = newEnd - newBegin;
+                final double[] values = new double[size + (size >> 1)];
+                final int keep = Math.max(0, endIndex - newBegin); // 0 if every bar it held was removed
+                if (keep > 0) {
+                    System.arraycopy(current.values, newBegin - current.base, values, 0, keep);
+                }
+                storage = new Storage(newBegin, values);
+            }
+            // the former last bar may have been updated as well
+            final int changed = Math.max(newBegin, endIndex - 1);
+            readyEnd = Math.max(newBegin, Math.min(readyEnd, changed));
+            invalidatedFrom = Math.min(invalidatedFrom, changed);
+            indexedEnd = Math.min(indexedEnd, changed);
+            beginIndex = newBegin;
+            endIndex = newEnd;
+        }
+    }
+
+    private void reportProgress(Runnable onProgress) {
+        if (onProgress == null || cancelled) {
+            return;
+        }
+        // Coalesce reports: the EDT only needs to hear about the latest state once.
+        if (progressPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                progressPending.set(false);
+                if (!cancelled) {
+                    onProgress.run();
+                }
+            });
+        }
+    }
+
+    /** Stops the computation at the next chunk boundary and suppresses further progress reports. */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** @return whether every value has been computed (or the computation failed and will not go on) */
+    public boolean isComplete() {
+        return failed || readyEnd >= endIndex;
+    }
+
+    /** @return the fraction of computed values, between 0 and 1 */
+    public double getProgress() {
+        final int begin = beginIndex;
+        final int total = endIndex - begin;
+        return total <= 0 ? 1.0 : Math.max(0.0, Math.min(1.0, (double) (readyEnd - begin) / total));
+    }
+
+    /**
+     * @param index the full-series index
+     * @return whether the value at the index has been computed
+     */
+    public boolean isReady(int index) {
+        return index >= beginIndex && index < readyEnd;
+    }
+
+    /**
+     * @param index the full-series index
+     * @return the value at the index, or {@code NaN} if it has not been computed yet or its bar has
+     * been removed from the series
+     */
+    public double getValue(int index) {
+        if (index < beginIndex || index >= readyEnd) {
+            return Double.NaN;
+        }
+        final Storage current = storage;
+        final int offset = index - current.base;
+        return (offset >= 0 && offset < current.values.length) ? current.values[offset] : Double.NaN;
+    }
+
+    /**
+     * Returns the lowest and highest computed value of the given bars, from an index over the
+     * column that is kept up to date with the computed values, so each call costs O(log n) however
+     * many bars the range spans. Values that are not computed yet are left out.
+     *
+     * @param fromIndex the full-series index of the first bar
+     * @param toIndex the full-series index of the last bar
+     * @return the range of the values, or {@code null} if none is computed
+     */
+    public synchronized Range getRange(int fromIndex, int toIndex) {
+        final Storage current = storage;
+        if (indexStorage != current) { // first call, or grown or compacted since
+            index = new MinMaxIndex(current.values.length);
+            indexStorage = current;
+            indexedEnd = current.base;
+        }
+        final int ready = readyEnd;
+        if (indexedEnd < ready) {
+            index.update(current.values, current.values, indexedEnd - current.base, ready - current.base);
+            indexedEnd = ready;
+        }
+        final int from = Math.max(fromIndex, beginIndex);
+        final int to = Math.min(toIndex, ready - 1);
+        return (from <= to) ? index.getRange(current.values, current.values, from - current.base, to - current.base) : null;
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Num) {
+            return ((Num) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            return ((Boolean) value) ? 1d : 0d;
+        }
+        return Double.NaN;
+    }
+}
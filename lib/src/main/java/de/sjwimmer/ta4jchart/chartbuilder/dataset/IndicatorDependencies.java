@@ -0,0 +1,162 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.ta4j.core.Indicator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Splits indicators into groups that share no sub-indicator, so each group can be computed on its
+ * own thread. ta4j's cached indicators are not meant to be filled from several threads at once;
+ * two EMAs over the same {@code ClosePriceIndicator}, for example, must be computed one after the
+ * other, while an RSI over an unrelated series can run next to them.
+ * <p>
+ * The sub-indicators are found by walking the indicator's fields reflectively. Arrays, collections
+ * and maps are searched element by element, whatever their declared element type, so raw, wildcard
+ * or loosely typed containers of sub-indicators are found as well. If a field cannot be read, the
+ * indicator is conservatively put into one group with all other indicators.
+ */
+public final class IndicatorDependencies {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicatorDependencies.class);
+
+    private IndicatorDependencies() {
+    }
+
+    /**
+     * Groups the columns so that columns whose indicators share any (sub-)indicator instance end up
+     * in the same group. Groups keep the relative order of the given columns.
+     *
+     * @param columns the columns to group
+     * @return the groups, in the order of their first column
+     */
+    public static List<List<IndicatorColumn>> group(List<IndicatorColumn> columns) {
+        final int n = columns.size();
+        final int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        final Map<Indicator<?>, Integer> owner = new IdentityHashMap<>();
+        int opaque = -1; // first column whose dependencies could not be determined
+        for (int i = 0; i < n; i++) {
+            final Set<Indicator<?>> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (!collect(columns.get(i).getIndicator(), reachable)) {
+                if (opaque < 0) {
+                    opaque = i;
+                } else {
+                    union(parent, opaque, i);
+                }
+            }
+            for (Indicator<?> indicator : reachable) {
+                final Integer other = owner.putIfAbsent(indicator, i);
+                if (other != null) {
+                    union(parent, other, i);
+                }
+            }
+        }
+        if (opaque >= 0) {
+            // Unknown dependencies could touch anything: compute everything in one group
+            for (int i = 0; i < n; i++) {
+                union(parent, opaque, i);
+            }
+        }
+
+        final Map<Integer, List<IndicatorColumn>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(columns.get(i));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Adds the indicator and every indicator reachable through its fields to {@code reachable}.
+     *
+     * @return {@code false} if some field could not be inspected
+     */
+    private static boolean collect(Indicator<?> root, Set<Indicator<?>> reachable) {
+        final Deque<Indicator<?>> pending = new ArrayDeque<>();
+        pending.push(root);
+        boolean complete = true;
+        while (!pending.isEmpty()) {
+            final Indicator<?> indicator = pending.pop();
+            if (!reachable.add(indicator)) {
+                continue;
+            }
+            for (Class<?> type = indicator.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    if (!mayHoldIndicators(field)) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        addIndicators(field.get(indicator), pending);
+                    } catch (RuntimeException | IllegalAccessException e) {
+                        log.debug("Cannot inspect {}.{}: {}", type.getName(), field.getName(), e.toString());
+                        complete = false;
+                    }
+                }
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Filters out fields whose type cannot reference an indicator. Containers (arrays of objects,
+     * collections and maps) are always kept: generic types are erased at runtime, so their elements
+     * are checked instead of their declared type.
+     */
+    private static boolean mayHoldIndicators(Field field) {
+        final Class<?> type = field.getType();
+        if (type.isArray()) {
+            return !type.getComponentType().isPrimitive();
+        }
+        return Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                || type.isAssignableFrom(Indicator.class) || Indicator.class.isAssignableFrom(type);
+    }
+
+    private static void addIndicators(Object value, Deque<Indicator<?>> pending) {
+        if (value instanceof Indicator) {
+            pending.push((Indicator<?>) value);
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                addIndicators(element, pending);
+            }
+        } else if (value instanceof Collection) {
+            // A snapshot: the value cache of a cached indicator may be filled meanwhile
+            for (Object element : ((Collection<?>) value).toArray()) {
+                addIndicators(element, pending);
+            }
+        } else if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            for (Object key : map.keySet().toArray()) {
+                addIndicators(key, pending);
+            }
+            for (Object element : map.values().toArray()) {
+                addIndicators(element, pending);
+            }
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        final int rootA = find(parent, a);
+        final int rootB = find(parent, b);
+        if (rootA != rootB) {
+            // keep the smaller index as root so groups are ordered by their first column
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
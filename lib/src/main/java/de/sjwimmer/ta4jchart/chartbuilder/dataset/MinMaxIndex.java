@@ -0,0 +1,137 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.jfree.data.Range;
+
+import java.util.Arrays;
+
+/**
+ * Range-minimum/maximum index over the slots of a value array, used to answer "what are the Y
+ * bounds of the visible bars" without touching every bar. The slots are split into leaf blocks of
+ * {@value #LEAF_SLOTS}; level 0 holds the minimum and maximum of each leaf block, and every further
+ * level those of two adjacent blocks of the level below (a bottom-up segment tree). A query scans
+ * at most two partial leaf blocks and combines O(log n) blocks; updating a slot costs O(log n).
+ * <p>
+ * The minimum and maximum can be taken from different arrays (lows and highs of a bar series) or
+ * from the same one (indicator values). {@code NaN} values are ignored. The index does not own the
+ * arrays: callers pass them to every call and tell which slots changed via
+ * {@link #update(double[], double[], int, int)}.
+ */
+final class MinMaxIndex {
+
+    private static final int LEAF_SHIFT = 4;
+    static final int LEAF_SLOTS = 1 << LEAF_SHIFT;
+
+    private final int capacity;
+    private final double[][] mins;
+    private final double[][] maxs;
+
+    /** @param capacity the length of the indexed arrays */
+    MinMaxIndex(int capacity) {
+        this.capacity = capacity;
+        int levels = 1;
+        for (int blocks = leafCount(capacity); blocks > 1; blocks = (blocks + 1) >> 1) {
+            levels++;
+        }
+        this.mins = new double[levels][];
+        this.maxs = new double[levels][];
+        int blocks = leafCount(capacity);
+        for (int level = 0; level < levels; level++) {
+            mins[level] = new double[blocks];
+            maxs[level] = new double[blocks];
+            Arrays.fill(mins[level], Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs[level], Double.NEGATIVE_INFINITY);
+            blocks = (blocks + 1) >> 1;
+        }
+    }
+
+    private static int leafCount(int capacity) {
+        return Math.max(1, (capacity + LEAF_SLOTS - 1) >> LEAF_SHIFT);
+    }
+
+    /** @return the length of the arrays this index was created for */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Recomputes the blocks containing the slots {@code fromSlot} to {@code size - 1}.
+     *
+     * @param minValues the array to take minimums from
+     * @param maxValues the array to take maximums from
+     * @param fromSlot the first changed slot
+     * @param size the number of valid slots; slots from here on are not read
+     */
+    void update(double[] minValues, double[] maxValues, int fromSlot, int size) {
+        if (fromSlot >= size) {
+            return;
+        }
+        int from = fromSlot >> LEAF_SHIFT;
+        int to = (size - 1) >> LEAF_SHIFT;
+        for (int block = from; block <= to; block++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            final int end = Math.min(size, (block + 1) << LEAF_SHIFT);
+            for (int slot = block << LEAF_SHIFT; slot < end; slot++) {
+                if (minValues[slot] < min) min = minValues[slot];
+                if (maxValues[slot] > max) max = maxValues[slot];
+            }
+            mins[0][block] = min;
+            maxs[0][block] = max;
+        }
+        for (int level = 1; level < mins.length; level++) {
+            from >>= 1;
+            to >>= 1;
+            final double[] childMins = mins[level - 1];
+            final double[] childMaxs = maxs[level - 1];
+            for (int block = from; block <= to; block++) {
+                final int left = block << 1;
+                final int right = left + 1;
+                mins[level][block] = (right < childMins.length) ? Math.min(childMins[left], childMins[right]) : childMins[left];
+                maxs[level][block] = (right < childMaxs.length) ? Math.max(childMaxs[left], childMaxs[right]) : childMaxs[left];
+            }
+        }
+    }
+
+    /**
+     * @param minValues the array minimums are taken from
+     * @param maxValues the array maximums are taken from
+     * @param fromSlot the first slot of the range
+     * @param toSlot the last slot of the range (inclusive)
+     * @return the minimum and maximum over the range, or {@code null} if it holds no values
+     */
+    Range getRange(double[] minValues, double[] maxValues, int fromSlot, int toSlot) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int from = fromSlot;
+        int to = toSlot + 1;
+        // partial leaf blocks at both ends
+        while (from < to && (from & (LEAF_SLOTS - 1)) != 0) {
+            if (minValues[from] < min) min = minValues[from];
+            if (maxValues[from] > max) max = maxValues[from];
+            from++;
+        }
+        while (to > from && (to & (LEAF_SLOTS - 1)) != 0) {
+            to--;
+            if (minValues[to] < min) min = minValues[to];
+            if (maxValues[to] > max) max = maxValues[to];
+        }
+        // whole blocks, bottom-up
+        from >>= LEAF_SHIFT;
+        to >>= LEAF_SHIFT;
+        for (int level = 0; from < to; level++) {
+            if ((from & 1) != 0) {
+                min = Math.min(min, mins[level][from]);
+                max = Math.max(max, maxs[level][from]);
+                from++;
+            }
+            if ((to & 1) != 0) {
+                to--;
+                min = Math.min(min, mins[level][to]);
+                max = Math.max(max, maxs[level][to]);
+            }
+            from >>= 1;
+            to >>= 1;
+        }
+        return (min <= max) ? new Range(min, max) : null;
+    }
+}
@@ -0,0 +1,111 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+/**
+ * Precomputed OHLC "mipmap" of a {@link BarSeriesColumns}: level {@code k} merges {@code 2^k}
+ * consecutive bars into one candle (first open, max high, min low, last close, summed volume),
+ * with groups aligned to multiples of {@code 2^k} from the first bar. Each level is built from the
+ * one below it, so building is O(n) and the levels together hold about as many candles as the
+ * base columns (n/2 + n/4 + ...), i.e. the base columns plus the pyramid stay within about twice
+ * the memory of the base columns alone. With the pyramid in place, a zoomed-out window reads one
+ * precomputed candle per group instead of scanning every bar it covers.
+ */
+public final class OhlcPyramid {
+
+    private final double[][] opens;
+    private final double[][] highs;
+    private final double[][] lows;
+    private final double[][] closes;
+    private final double[][] volumes;
+
+    private OhlcPyramid(double[][] opens, double[][] highs, double[][] lows, double[][] closes, double[][] volumes) {
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+    }
+
+    /**
+     * Builds every level of the pyramid for the given columns, from groups of two bars up to the
+     * level that holds a single candle.
+     *
+     * @param columns the base columns
+     * @return the pyramid
+     */
+    public static OhlcPyramid build(BarSeriesColumns columns) {
+        final int size = columns.size();
+        final int levelCount = (size <= 1) ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        final double[][] opens = new double[levelCount + 1][];
+        final double[][] highs = new double[levelCount + 1][];
+        final double[][] lows = new double[levelCount + 1][];
+        final double[][] closes = new double[levelCount + 1][];
+        final double[][] volumes = new double[levelCount + 1][];
+
+        // Level 1 is merged straight from the base columns, every further level from the one below.
+        final int begin = columns.getBeginIndex();
+        for (int level = 1; level <= levelCount; level++) {
+            final int below = (level == 1) ? size : opens[level - 1].length;
+            final int n = (below + 1) / 2;
+            opens[level] = new double[n];
+            highs[level] = new double[n];
+            lows[level] = new double[n];
+            closes[level] = new double[n];
+            volumes[level] = new double[n];
+            for (int j = 0; j < n; j++) {
+                final int a = 2 * j;
+                final int b = Math.min(a + 1, below - 1);
+                if (level == 1) {
+                    opens[1][j] = columns.getOpen(begin + a);
+                    closes[1][j] = columns.getClose(begin + b);
+                    highs[1][j] = Math.max(columns.getHigh(begin + a), columns.getHigh(begin + b));
+                    lows[1][j] = Math.min(columns.getLow(begin + a), columns.getLow(begin + b));
+                    volumes[1][j] = (a == b) ? columns.getVolume(begin + a) : columns.getVolume(begin + a) + columns.getVolume(begin + b);
+                } else {
+                    opens[level][j] = opens[level - 1][a];
+                    closes[level][j] = closes[level - 1][b];
+                    highs[level][j] = Math.max(highs[level - 1][a], highs[level - 1][b]);
+                    lows[level][j] = Math.min(lows[level - 1][a], lows[level - 1][b]);
+                    volumes[level][j] = (a == b) ? volumes[level - 1][a] : volumes[level - 1][a] + volumes[level - 1][b];
+                }
+            }
+        }
+        return new OhlcPyramid(opens, highs, lows, closes, volumes);
+    }
+
+    /** @return the highest level; level {@code k} groups {@code 2^k} bars */
+    public int getTopLevel() {
+        return opens.length - 1;
+    }
+
+    /**
+     * @param groupSize the number of bars per candle
+     * @return whether the pyramid holds a level for the given group size
+     */
+    public boolean hasGroupSize(int groupSize) {
+        return groupSize > 1 && Integer.bitCount(groupSize) == 1 && levelOf(groupSize) <= getTopLevel();
+    }
+
+    /** @return the number of candles on the level for the given group size */
+    public int size(int groupSize) {
+        return opens[levelOf(groupSize)].length;
+    }
+
+    public double getOpen(int groupSize, int group) { return opens[levelOf(groupSize)][group]; }
+    public double getHigh(int groupSize, int group) { return highs[levelOf(groupSize)][group]; }
+    public double getLow(int groupSize, int group) { return lows[levelOf(groupSize)][group]; }
+    public double getClose(int groupSize, int group) { return closes[levelOf(groupSize)][group]; }
+    public double getVolume(int groupSize, int group) { return volumes[levelOf(groupSize)][group]; }
+
+    /** @return the approximate heap size of all levels in bytes */
+    public long getMemoryBytes() {
+        long candles = 0;
+        for (int level = 1; level < opens.length; level++) {
+            candles += opens[level].length;
+        }
+        return candles * 5 * Double.BYTES;
+    }
+
+    private static int levelOf(int groupSize) {
+        return Integer.numberOfTrailingZeros(groupSize);
+    }
+}
@@ -0,0 +1,83 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+/**
+ * Immutable buffer holding one {@code double} per index for a contiguous window of the full series.
+ * When the window moves, {@link #slide} copies the region that overlaps the previous window into
+ * the new buffer and only requests the indices that newly entered the window from the
+ * {@link Filler}. During a pan, consecutive windows overlap almost entirely, so the cost of a move
+ * is a plain array copy plus computation proportional to the pan distance rather than to the window
+ * size. Since a buffer never changes once built, a window can be prepared on a background thread
+ * while the event dispatch thread keeps rendering the previous one.
+ */
+final class SlidingWindowBuffer {
+
+    /** Computes the values for a range of full-series indices that entered the window. */
+    interface Filler {
+        /**
+         * @param target the array to write into
+         * @param targetOffset the position in {@code target} of {@code fromIndex}
+         * @param fromIndex the first full-series index to compute
+         * @param count the number of consecutive indices to compute
+         */
+        void fill(double[] target, int targetOffset, int fromIndex, int count);
+    }
+
+    static final SlidingWindowBuffer EMPTY = new SlidingWindowBuffer(new double[0], -1, 0, 0);
+
+    private final double[] values;
+    private final int start;
+    private final int count;
+    private final int filledCount;
+
+    private SlidingWindowBuffer(double[] values, int start, int count, int filledCount) {
+        this.values = values;
+        this.start = start;
+        this.count = count;
+        this.filledCount = filledCount;
+    }
+
+    /**
+     * Returns a buffer for the window {@code [newStart, newStart + newCount)}, reusing the values of
+     * the indices that are in both this and the new window.
+     */
+    SlidingWindowBuffer slide(int newStart, int newCount, Filler filler) {
+        return slide(newStart, newCount, Integer.MIN_VALUE, Integer.MAX_VALUE, filler);
+    }
+
+    /**
+     * Like {@link #slide(int, int, Filler)}, but only reuses the values of indices from
+     * {@code validStart} to {@code validEnd - 1}; the other values are computed again (e.g. because
+     * the bars they were computed from have changed or were removed).
+     */
+    SlidingWindowBuffer slide(int newStart, int newCount, int validStart, int validEnd, Filler filler) {
+        final int oldEnd = Math.min(this.start + this.count, Math.max(this.start, validEnd));
+        final int newEnd = newStart + newCount;
+        final int overlapStart = Math.max(Math.max(this.start, validStart), newStart);
+        final int overlapEnd = Math.min(oldEnd, newEnd);
+        final boolean overlaps = this.count > 0 && overlapStart < overlapEnd;
+
+        final double[] target = new double[newCount];
+        if (overlaps) {
+            System.arraycopy(this.values, overlapStart - this.start, target, overlapStart - newStart, overlapEnd - overlapStart);
+            if (newStart < overlapStart) {
+                filler.fill(target, 0, newStart, overlapStart - newStart);
+            }
+            if (overlapEnd < newEnd) {
+                filler.fill(target, overlapEnd - newStart, overlapEnd, newEnd - overlapEnd);
+            }
+            return new SlidingWindowBuffer(target, newStart, newCount, newCount - (overlapEnd - overlapStart));
+        }
+        filler.fill(target, 0, newStart, newCount);
+        return new SlidingWindowBuffer(target, newStart, newCount, newCount);
+    }
+
+    /** @return the value at the given position of the window (0 = window start) */
+    double get(int item) {
+        return values[item];
+    }
+
+    /** @return how many values the {@link #slide} that built this buffer had to compute (the rest was copied) */
+    int getLastFilledCount() {
+        return filledCount;
+    }
+}
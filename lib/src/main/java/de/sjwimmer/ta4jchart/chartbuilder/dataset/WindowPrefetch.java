@@ -0,0 +1,84 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which bars a dynamic dataset loads around the visible range. As long as the visible range
+ * stays inside the loaded window, the window is kept as it is (a hit). When the visible range
+ * leaves it (a miss), a new window is loaded with {@code bufferBars} on the trailing side and, on
+ * the side the chart is panning towards, an extra lead proportional to the pan velocity, so a
+ * sustained drag runs into the edge of the window far less often.
+ */
+public final class WindowPrefetch {
+
+    /** How far ahead, in seconds of motion at the current pan velocity, to load. */
+    private static final double LEAD_SECONDS = 0.5;
+    /** Upper bound of the velocity-scaled lead, in visible ranges. */
+    private static final int MAX_LEAD_VISIBLE_RANGES = 4;
+
+    private final int bufferBars;
+    private volatile double panVelocity = 0; // Bars per second; positive when panning towards newer bars
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public WindowPrefetch(int bufferBars) {
+        this.bufferBars = Math.max(0, bufferBars);
+    }
+
+    public int getBufferBars() {
+        return bufferBars;
+    }
+
+    /** @param barsPerSecond the current pan velocity; positive when panning towards newer bars, 0 when idle */
+    public void setPanVelocity(double barsPerSecond) {
+        this.panVelocity = barsPerSecond;
+    }
+
+    public double getPanVelocity() {
+        return panVelocity;
+    }
+
+    /**
+     * Checks whether the loaded window still covers the visible bars and counts the hit or miss.
+     *
+     * @param reusable whether the loaded window still matches the series and grouping to show
+     * @param windowStart the first loaded bar
+     * @param windowCount the number of loaded bars (0 if nothing is loaded)
+     * @param firstVisible the first visible bar
+     * @param lastVisible the last visible bar
+     * @return whether the loaded window can be kept
+     */
+    boolean covers(boolean reusable, int windowStart, int windowCount, int firstVisible, int lastVisible) {
+        if (reusable && windowCount > 0 && firstVisible >= windowStart && lastVisible < windowStart + windowCount) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /** @return the first bar of the window to load for the given visible bars */
+    int windowStart(int begin, int firstVisible, int lastVisible) {
+        return Math.max(begin, firstVisible - (panVelocity < 0 ? leadBars(lastVisible - firstVisible + 1) : bufferBars));
+    }
+
+    /** @return the last bar of the window to load for the given visible bars */
+    int windowEnd(int end, int firstVisible, int lastVisible) {
+        return Math.min(end, lastVisible + (panVelocity > 0 ? leadBars(lastVisible - firstVisible + 1) : bufferBars));
+    }
+
+    private int leadBars(int visibleBars) {
+        final double lead = Math.abs(panVelocity) * LEAD_SECONDS;
+        return bufferBars + (int) Math.min(lead, (double) visibleBars * MAX_LEAD_VISIBLE_RANGES);
+    }
+
+    /** @return the number of window updates served by the loaded window */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return the number of window updates that had to load a new window */
+    public long getMisses() {
+        return misses.get();
+    }
+}
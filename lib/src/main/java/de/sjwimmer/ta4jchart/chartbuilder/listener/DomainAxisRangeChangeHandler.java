@@ -2,33 +2,72 @@ package de.sjwimmer.ta4jchart.chartbuilder.listener;
 
 import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowOHLCDataset;
 import de.sjwimmer.ta4jchart.chartbuilder.dataset.IDynamicDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.utils.TacExecutors;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.event.AxisChangeEvent;
 import org.jfree.chart.event.AxisChangeListener;
+import org.jfree.chart.plot.Plot;
 import org.jfree.data.Range;
 
-import javax.swing.Timer; // Swing Timer for EDT safety
+import javax.swing.SwingUtilities;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DomainAxisRangeChangeHandler implements AxisChangeListener {
     private final List<IDynamicDataset> dynamicDatasets = new ArrayList<>();
+    // Datasets whose plot cannot be seen: their windows are not updated until they can (EDT only)
+    private final Set<IDynamicDataset> hiddenDatasets = Collections.newSetFromMap(new IdentityHashMap<>());
     private final ValueAxis domainAxis;
-    private final Timer debounceTimer;
-    private static final int DEBOUNCE_DELAY_MS = 10;
+    private final FrameScheduler frameScheduler; // Runs axis updates at most once per frame
+    private final Runnable updateTask = this::performUpdate;
+    private double dataAreaWidth = 0; // Pixel width of the data area, 0 until the chart has been drawn
+
+    // Asynchronous window loading: null runs every update synchronously on the EDT
+    private Executor windowExecutor = null;
+    private volatile long requestedGeneration = 0; // Generation of the newest axis range
+    private long appliedGeneration = 0; // Generation of the windows on screen (EDT only)
+
+    // Parallel window preparation: the windows of several datasets are prepared by this many threads
+    private static final int MIN_PARALLEL_DATASETS = 2; // A single window is not worth the hand-off
+    private volatile int windowThreads = Runtime.getRuntime().availableProcessors();
+
+    // Pan velocity tracking, used by the datasets to load more bars ahead of the motion (EDT only)
+    private static final double PAN_IDLE_SECONDS = 0.3; // A pause longer than this ends the motion
+    private static final double MIN_PAN_INTERVAL_SECONDS = 0.005;
+    private static final double PAN_VELOCITY_SMOOTHING = 0.5; // Weight of the newest pan step
+    private double panVelocity = 0; // Bars per second, positive towards newer bars
+    private long lastPanNanos = 0;
+
+    // Batched updates: the plot does not notify the chart until the outermost batch ends (EDT only)
+    private int batchDepth = 0;
+    private Plot batchPlot;
+    private boolean windowsPending = false; // A batch moved the axis; its windows follow with the next frame
+    private Plot heldPlot; // Plot of a finished batch whose notification waits for that frame
+    private long chartNotifications = 0; // Change events the plot sent to the chart
 
     public DomainAxisRangeChangeHandler(ValueAxis domainAxis, IDynamicDataset initialDataset) {
         this.domainAxis = domainAxis;
         if (initialDataset != null) {
             this.dynamicDatasets.add(initialDataset);
         }
-        this.debounceTimer = new Timer(DEBOUNCE_DELAY_MS, e -> performUpdate());
-        this.debounceTimer.setRepeats(false);
+        this.frameScheduler = new FrameScheduler(FrameScheduler.DEFAULT_FRAME_RATE, this::runBatch);
+        if (domainAxis != null && domainAxis.getPlot() != null) {
+            domainAxis.getPlot().addChangeListener(event -> chartNotifications++);
+        }
     }
 
     public void addDataset(IDynamicDataset dataset) {
         if (dataset != null && !this.dynamicDatasets.contains(dataset)) {
             this.dynamicDatasets.add(dataset);
+            dataset.setDataAreaWidth(dataAreaWidth);
+            dataset.setPanVelocity(panVelocity);
             // Immediately update the new dataset to the current view
             Range range = domainAxis.getRange();
             if (range != null) {
@@ -37,32 +76,261 @@ public class DomainAxisRangeChangeHandler implements AxisChangeListener {
         }
     }
 
+    /**
+     * Updates the pixel width of the data area that the domain axis spans. When it changes, every
+     * dataset is told the new width and its window is refreshed, since the amount of detail worth
+     * showing depends on how many bars share a pixel column.
+     *
+     * @param widthPixels the width of the data area in pixels
+     */
+    public void setDataAreaWidth(double widthPixels) {
+        if (widthPixels <= 0 || Math.abs(widthPixels - this.dataAreaWidth) < 1.0) {
+            return;
+        }
+        this.dataAreaWidth = widthPixels;
+        for (IDynamicDataset dataset : new ArrayList<>(dynamicDatasets)) {
+            dataset.setDataAreaWidth(widthPixels);
+        }
+        performUpdate();
+    }
+
+    /**
+     * Enables or disables preparing the dataset windows on a background thread. When enabled, an
+     * axis change only takes a {@link IDynamicDataset#snapshot() snapshot} of each dataset's columns
+     * on the EDT; the windows are computed from the snapshots off the EDT, without reading any bar
+     * series, and published together on the EDT, while the previous windows keep rendering. A request that has not started
+     * when a newer range arrives is skipped, and windows older than those on screen are dropped.
+     * Datasets that compute indicator values while preparing a window (see
+     * {@link IDynamicDataset#canPrepareConcurrently()}) are still prepared on the EDT, right before
+     * the windows are published, so their indicators are never computed on the loading thread.
+     *
+     * @param enabled whether to load windows asynchronously (disabled by default)
+     */
+    public void setAsyncWindowLoading(boolean enabled) {
+        this.windowExecutor = enabled ? TacExecutors.windows() : null;
+    }
+
+    public boolean isAsyncWindowLoading() {
+        return windowExecutor != null;
+    }
+
+    /**
+     * Sets how many threads prepare the windows of the datasets after an axis change (one per core
+     * by default). The thread updating the windows prepares windows as well and waits for the others
+     * once, so the windows are published together. Datasets computing indicator values while
+     * preparing a window (see {@link IDynamicDataset#canPrepareConcurrently()}) are always prepared
+     * on the event dispatch thread, one after the other.
+     *
+     * @param threads the number of threads, including the updating one; 1 prepares every window on that thread
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public void setWindowPreparationThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.windowThreads = threads;
+    }
+
+    public int getWindowPreparationThreads() {
+        return windowThreads;
+    }
+
+    /**
+     * Sets how many times per second the chart is updated at most while the axis moves (60 by
+     * default). Axis moves, window changes and overlay changes arriving within one frame are
+     * applied together.
+     *
+     * @param framesPerSecond the target frame rate, e.g. 60 or 120
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public void setTargetFrameRate(int framesPerSecond) {
+        frameScheduler.setTargetFrameRate(framesPerSecond);
+    }
+
+    /**
+     * @return the scheduler pacing the chart updates; other invalidations of the chart (column
+     * progress, overlay moves) can be requested on it to be applied in the same frame, and it
+     * reports late and dropped frames
+     */
+    public FrameScheduler getFrameScheduler() {
+        return frameScheduler;
+    }
+
+    /**
+     * Records a pan of the domain axis, before it is applied, to track the pan velocity. The
+     * datasets use the velocity to load more bars on the side the chart is moving towards, so a
+     * sustained drag does not run into the edge of the loaded window on every step.
+     *
+     * @param deltaBars the pan distance in domain units (bars); positive towards newer bars
+     */
+    public void recordPan(double deltaBars) {
+        final long now = System.nanoTime();
+        final double elapsed = (now - lastPanNanos) / 1e9;
+        lastPanNanos = now;
+        if (elapsed > PAN_IDLE_SECONDS) {
+            // First step of a motion: assume the next one follows within the idle period
+            setPanVelocity(deltaBars / PAN_IDLE_SECONDS);
+        } else {
+            final double stepVelocity = deltaBars / Math.max(elapsed, MIN_PAN_INTERVAL_SECONDS);
+            setPanVelocity(PAN_VELOCITY_SMOOTHING * stepVelocity + (1 - PAN_VELOCITY_SMOOTHING) * panVelocity);
+        }
+    }
+
+    /** @return the smoothed pan velocity in bars per second, 0 when the chart is not being panned */
+    public double getPanVelocity() {
+        return panVelocity;
+    }
+
+    private void setPanVelocity(double barsPerSecond) {
+        this.panVelocity = barsPerSecond;
+        for (IDynamicDataset dataset : dynamicDatasets) {
+            dataset.setPanVelocity(barsPerSecond);
+        }
+    }
+
+    /** @return how many window updates of the registered datasets were served by their loaded windows */
+    public long getWindowHits() {
+        long hits = 0;
+        for (IDynamicDataset dataset : dynamicDatasets) {
+            hits += dataset.getWindowHits();
+        }
+        return hits;
+    }
+
+    /** @return how many window updates of the registered datasets had to load a new window */
+    public long getWindowMisses() {
+        long misses = 0;
+        for (IDynamicDataset dataset : dynamicDatasets) {
+            misses += dataset.getWindowMisses();
+        }
+        return misses;
+    }
+
+    public double getDataAreaWidth() {
+        return dataAreaWidth;
+    }
+
+    /**
+     * Updates the windows of all datasets to the current axis range, e.g. after bars were added to
+     * the series while the range stayed the same.
+     */
+    public void refresh() {
+        performUpdate();
+    }
+
+    /**
+     * Runs a change of the chart (moving the domain axis, adjusting the range axes, ...) as one
+     * update: the plot does not notify the chart while it runs. If the change moved the domain axis,
+     * the dataset windows follow with the next frame, and the chart is only notified when that frame
+     * has run, together with every other batch until then; so however many drag, wheel or key events
+     * arrive within a frame, the windows are updated once and the chart is laid out and redrawn once.
+     * Otherwise the chart is notified at the end of the batch. With asynchronous window loading, the
+     * windows are published in a second update once they are ready. Batches may be nested; must be
+     * called on the event dispatch thread.
+     *
+     * @param change the change to apply
+     */
+    public void runBatch(Runnable change) {
+        beginBatch();
+        try {
+            change.run();
+        } finally {
+            endBatch();
+        }
+    }
+
+    private void beginBatch() {
+        if (batchDepth++ == 0) {
+            if (heldPlot != null) { // still waiting for the frame: this batch is notified with it
+                batchPlot = heldPlot;
+                heldPlot = null;
+                return;
+            }
+            final Plot plot = domainAxis == null ? null : domainAxis.getPlot();
+            if (plot != null && plot.isNotify()) { // otherwise someone else is holding back the events
+                plot.setNotify(false);
+                batchPlot = plot;
+            }
+        }
+    }
+
+    private void endBatch() {
+        if (--batchDepth == 0 && batchPlot != null) {
+            final Plot plot = batchPlot;
+            batchPlot = null;
+            if (windowsPending) {
+                heldPlot = plot; // the frame updating the windows notifies the chart
+            } else {
+                plot.setNotify(true); // sends the single change event
+            }
+        }
+    }
+
+    /**
+     * @return how many change events the plot has sent to the chart so far; each one makes the chart
+     * lay out and redraw itself. The frame following batched pan steps adds one, however many steps
+     * it covers and however many datasets are registered.
+     */
+    public long getChartNotificationCount() {
+        return chartNotifications;
+    }
+
     public void clearAllDatasets() {
         this.dynamicDatasets.clear();
+        this.hiddenDatasets.clear();
     }
 
-    private long lastUpdateTime = 0;
-    private boolean updateScheduled = false;
+    /**
+     * Tells whether the plot showing a dataset can be seen. The window of a hidden dataset (e.g. of a
+     * collapsed subplot, or one scrolled out of view) is not updated when the axis moves; when it
+     * becomes visible again, it is moved to the current axis range in one step.
+     *
+     * @param dataset a registered dataset
+     * @param visible whether the dataset can be seen
+     */
+    public void setDatasetVisible(IDynamicDataset dataset, boolean visible) {
+        if (!visible) {
+            if (dynamicDatasets.contains(dataset)) {
+                hiddenDatasets.add(dataset);
+            }
+            return;
+        }
+        final Range range = (domainAxis == null) ? null : domainAxis.getRange();
+        if (hiddenDatasets.remove(dataset) && range != null) {
+            applyWindows(prepareWindows(Collections.singletonList(dataset), (long) range.getLowerBound(), (long) range.getUpperBound(), 1));
+        }
+    }
+
+    public boolean isDatasetVisible(IDynamicDataset dataset) {
+        return !hiddenDatasets.contains(dataset);
+    }
+
+    /** @return the datasets whose windows follow the axis */
+    private List<IDynamicDataset> visibleDatasets() {
+        final List<IDynamicDataset> visible = new ArrayList<>(dynamicDatasets.size());
+        for (IDynamicDataset dataset : dynamicDatasets) {
+            if (!hiddenDatasets.contains(dataset)) {
+                visible.add(dataset);
+            }
+        }
+        return visible;
+    }
 
     @Override
     public void axisChanged(AxisChangeEvent event) {
-        long now = System.currentTimeMillis();
-        if (!updateScheduled) {
-            if (now - lastUpdateTime > DEBOUNCE_DELAY_MS) {
-                performUpdate();
-                lastUpdateTime = now;
-            } else {
-                debounceTimer.restart();
-                updateScheduled = true;
-            }
-        } else {
-            debounceTimer.restart();
+        if (batchDepth > 0) {
+            windowsPending = true; // the frame publishes the windows together with the axis move
         }
+        frameScheduler.request(updateTask); // all moves within one frame share one update
     }
 
     private void performUpdate() {
-        updateScheduled = false;
-        debounceTimer.stop();
+        if (heldPlot != null && batchDepth == 0) {
+            runBatch(this::performUpdate); // releases the held notification with the windows
+            return;
+        }
+        frameScheduler.cancel(updateTask);
+        windowsPending = false;
 
         if (domainAxis == null || dynamicDatasets.isEmpty()) return;
         Range range = domainAxis.getRange();
@@ -71,10 +339,133 @@ public class DomainAxisRangeChangeHandler implements AxisChangeListener {
         long lower = (long) range.getLowerBound();
         long upper = (long) range.getUpperBound();
 
-        for (IDynamicDataset dataset : new ArrayList<>(dynamicDatasets)) { // Iterate over a copy
-            dataset.updateWindow(lower, upper);
+        if (panVelocity != 0 && (System.nanoTime() - lastPanNanos) / 1e9 > PAN_IDLE_SECONDS) {
+            setPanVelocity(0); // the motion stopped (e.g. this is a zoom): load symmetrically again
+        }
+
+        if (windowExecutor != null) {
+            prepareWindowsAsync(visibleDatasets(), lower, upper, windowThreads);
+        } else {
+            applyWindows(prepareWindows(visibleDatasets(), lower, upper, windowThreads));
+        }
+    }
+
+    /**
+     * Prepares the windows of all datasets on the calling thread, which must be the event dispatch
+     * thread. The datasets that can be prepared concurrently are snapshotted first and then handed
+     * out to up to {@code threads - 1} workers and the calling thread, which first prepares the
+     * others; then it waits for the workers once.
+     *
+     * @return the prepared windows
+     */
+    private static List<IDynamicDataset.PreparedWindow> prepareWindows(List<IDynamicDataset> datasets, long lower, long upper, int threads) {
+        final List<IDynamicDataset.WindowPreparer> concurrent = new ArrayList<>(datasets.size());
+        final List<IDynamicDataset> onEdt = new ArrayList<>();
+        snapshot(datasets, concurrent, onEdt);
+        final List<IDynamicDataset.PreparedWindow> prepared = prepareSequentially(onEdt, lower, upper);
+        prepared.addAll(prepareConcurrently(concurrent, lower, upper, threads));
+        return prepared;
+    }
+
+    /**
+     * Splits the datasets into the snapshots of those that can be prepared concurrently and those
+     * that have to be prepared on the event dispatch thread. Runs on the event dispatch thread, so the
+     * snapshots never read a bar series while a live update modifies it.
+     */
+    private static void snapshot(List<IDynamicDataset> datasets, List<IDynamicDataset.WindowPreparer> concurrent, List<IDynamicDataset> onEdt) {
+        for (IDynamicDataset dataset : datasets) {
+            if (dataset.canPrepareConcurrently()) {
+                concurrent.add(dataset.snapshot());
+            } else {
+                onEdt.add(dataset);
+            }
+        }
+    }
+
+    /** Prepares the windows one after the other on the calling thread. */
+    private static List<IDynamicDataset.PreparedWindow> prepareSequentially(List<IDynamicDataset> datasets, long lower, long upper) {
+        final List<IDynamicDataset.PreparedWindow> prepared = new ArrayList<>(datasets.size());
+        for (IDynamicDataset dataset : datasets) {
+            final IDynamicDataset.PreparedWindow window = dataset.prepareWindow(lower, upper);
+            if (window != null) {
+                prepared.add(window);
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Prepares the windows from snapshots, handing them out one at a time to up to
+     * {@code threads - 1} workers and the calling thread; then waits for the workers once. Touches
+     * no bar series, so it may run on any thread.
+     *
+     * @return the prepared windows, in the order of the preparers
+     */
+    private static List<IDynamicDataset.PreparedWindow> prepareConcurrently(List<IDynamicDataset.WindowPreparer> preparers, long lower, long upper, int threads) {
+        final IDynamicDataset.PreparedWindow[] windows = new IDynamicDataset.PreparedWindow[preparers.size()];
+        final int workerCount = (preparers.size() < MIN_PARALLEL_DATASETS) ? 0 : Math.min(threads, preparers.size()) - 1;
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable prepare = () -> {
+            for (int i = next.getAndIncrement(); i < preparers.size(); i = next.getAndIncrement()) {
+                windows[i] = preparers.get(i).prepareWindow(lower, upper);
+            }
+        };
+        final CompletableFuture<?>[] workers = new CompletableFuture<?>[workerCount];
+        for (int w = 0; w < workerCount; w++) {
+            workers[w] = CompletableFuture.runAsync(prepare, TacExecutors.windowWorkers());
         }
-        lastUpdateTime = System.currentTimeMillis();
+        prepare.run();
+        try {
+            CompletableFuture.allOf(workers).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        final List<IDynamicDataset.PreparedWindow> prepared = new ArrayList<>(windows.length);
+        for (IDynamicDataset.PreparedWindow window : windows) {
+            if (window != null) {
+                prepared.add(window);
+            }
+        }
+        return prepared;
+    }
+
+    /** Publishes the windows in one batch, so the chart is notified once instead of once per dataset. */
+    private void applyWindows(List<IDynamicDataset.PreparedWindow> prepared) {
+        if (prepared.isEmpty()) {
+            return; // every window was kept: nothing to redraw
+        }
+        runBatch(() -> {
+            for (IDynamicDataset.PreparedWindow window : prepared) {
+                window.apply();
+            }
+        });
+    }
+
+    private void prepareWindowsAsync(List<IDynamicDataset> datasets, long lower, long upper, int threads) {
+        final long generation = ++requestedGeneration;
+        // The series are only read here, on the EDT: the background job works on the snapshots
+        final List<IDynamicDataset.WindowPreparer> background = new ArrayList<>(datasets.size());
+        final List<IDynamicDataset> onEdt = new ArrayList<>();
+        snapshot(datasets, background, onEdt);
+        windowExecutor.execute(() -> {
+            if (generation != requestedGeneration) {
+                return; // a newer range arrived before this one started
+            }
+            final List<IDynamicDataset.PreparedWindow> prepared = prepareConcurrently(background, lower, upper, threads);
+            SwingUtilities.invokeLater(() -> {
+                if (generation <= appliedGeneration) {
+                    return; // newer windows are already on screen
+                }
+                appliedGeneration = generation;
+                // These compute indicator values, which is only safe on the EDT
+                prepared.addAll(prepareSequentially(onEdt, lower, upper));
+                applyWindows(prepared);
+            });
+        });
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package de.sjwimmer.ta4jchart.chartbuilder.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces chart invalidations (axis moves, dataset windows, overlay changes) into at most one
+ * update per display frame. A task requested several times before the next frame runs once, and
+ * all tasks of a frame run together through the frame runner, e.g. as one batch that notifies the
+ * chart once. Overlay tasks, which only repaint what is drawn over the chart image (such as the
+ * crosshair), run with the frame but outside the frame runner, so a frame with nothing but overlay
+ * tasks does not redraw the chart. When no frame ran for a whole frame period, a request is served on the next pass of
+ * the event loop; otherwise it waits for the next frame boundary of the target frame rate.
+ * <p>
+ * A frame that starts more than a quarter of a frame period after its deadline counts as late, and
+ * every whole frame period it missed counts as a dropped frame; both happen when the event dispatch
+ * thread is busy, e.g. with a paint that takes longer than a frame. Must be used on the event
+ * dispatch thread.
+ */
+public class FrameScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(FrameScheduler.class);
+
+    public static final int DEFAULT_FRAME_RATE = 60;
+    private static final int LATE_FRACTION = 4; // A frame is late when it starts this fraction of a period after its deadline
+
+    private final Consumer<Runnable> frameRunner;
+    private final Set<Runnable> pending = new LinkedHashSet<>();
+    private final Set<Runnable> pendingOverlays = new LinkedHashSet<>();
+    private final Timer timer;
+    private int targetFrameRate;
+    private long frameNanos;
+    private long lastFrameNanos;
+    private long deadlineNanos;
+
+    private long frames = 0;
+    private long lateFrames = 0;
+    private long droppedFrames = 0;
+
+    /**
+     * @param targetFrameRate the maximum number of frames per second
+     * @param frameRunner runs the tasks of a frame, given as one runnable
+     */
+    public FrameScheduler(int targetFrameRate, Consumer<Runnable> frameRunner) {
+        this.frameRunner = frameRunner;
+        setTargetFrameRate(targetFrameRate);
+        this.lastFrameNanos = System.nanoTime() - frameNanos;
+        this.timer = new Timer(0, e -> runFrame());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * @param targetFrameRate the maximum number of frames per second, e.g. 60 or 120
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public void setTargetFrameRate(int targetFrameRate) {
+        if (targetFrameRate <= 0) {
+            throw new IllegalArgumentException("Target frame rate must be positive: " + targetFrameRate);
+        }
+        this.targetFrameRate = targetFrameRate;
+        this.frameNanos = 1_000_000_000L / targetFrameRate;
+    }
+
+    public int getTargetFrameRate() {
+        return targetFrameRate;
+    }
+
+    /**
+     * Runs the task with the next frame. Requesting a task that is already waiting for the next frame
+     * does nothing, so the task should be the same instance for the same kind of invalidation.
+     *
+     * @param task the task to run
+     */
+    public void request(Runnable task) {
+        if (pending.add(task)) {
+            schedule();
+        }
+    }
+
+    /**
+     * Runs an overlay task with the next frame, after the other tasks of the frame and outside the
+     * frame runner. The task must not change the chart, only what is painted over it. Requesting a
+     * task that is already waiting for the next frame does nothing.
+     *
+     * @param task the task to run
+     */
+    public void requestOverlay(Runnable task) {
+        if (pendingOverlays.add(task)) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!timer.isRunning()) {
+            final long now = System.nanoTime();
+            deadlineNanos = Math.max(now, lastFrameNanos + frameNanos);
+            timer.setInitialDelay((int) ((deadlineNanos - now + 999_999) / 1_000_000));
+            timer.restart();
+        }
+    }
+
+    /**
+     * Removes a task from the next frame, e.g. because it has just been run directly.
+     *
+     * @param task the task to remove
+     */
+    public void cancel(Runnable task) {
+        if ((pending.remove(task) || pendingOverlays.remove(task)) && !hasPendingTasks()) {
+            timer.stop();
+        }
+    }
+
+    /** @return whether tasks are waiting for the next frame */
+    public boolean hasPendingTasks() {
+        return !pending.isEmpty() || !pendingOverlays.isEmpty();
+    }
+
+    /** Runs the tasks waiting for the next frame right away, outside of the frame accounting. */
+    public void flush() {
+        timer.stop();
+        runTasks();
+    }
+
+    private void runFrame() {
+        final long now = System.nanoTime();
+        final long lateness = now - deadlineNanos;
+        frames++;
+        if (lateness > frameNanos / LATE_FRACTION) {
+            lateFrames++;
+            final long missed = lateness / frameNanos;
+            droppedFrames += missed;
+            log.trace("Frame {} started {} ms late, {} frames dropped", frames, lateness / 1_000_000, missed);
+        }
+        lastFrameNanos = now;
+        runTasks();
+    }
+
+    private void runTasks() {
+        // tasks requested while running go to the next frame
+        if (!pending.isEmpty()) {
+            final List<Runnable> tasks = new ArrayList<>(pending);
+            pending.clear();
+            frameRunner.accept(() -> {
+                for (Runnable task : tasks) {
+                    task.run();
+                }
+            });
+        }
+        if (!pendingOverlays.isEmpty()) {
+            final List<Runnable> overlays = new ArrayList<>(pendingOverlays);
+            pendingOverlays.clear();
+            for (Runnable task : overlays) {
+                task.run();
+            }
+        }
+    }
+
+    /** @return how many frames have run */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /** @return how many frames started more than a quarter of a frame period after their deadline */
+    public long getLateFrameCount() {
+        return lateFrames;
+    }
+
+    /** @return how many whole frame periods passed without a frame while tasks were waiting */
+    public long getDroppedFrameCount() {
+        return droppedFrames;
+    }
+}
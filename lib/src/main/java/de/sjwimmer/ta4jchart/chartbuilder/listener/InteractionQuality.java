@@ -0,0 +1,218 @@
+package de.sjwimmer.ta4jchart.chartbuilder.listener;
+
+import de.sjwimmer.ta4jchart.chartbuilder.renderer.TacCandlestickRenderer;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.event.ChartProgressEvent;
+import org.jfree.chart.event.ChartProgressListener;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.Plot;
+import org.jfree.chart.plot.XYPlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.Timer;
+import java.awt.RenderingHints;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lowers the rendering quality of a chart while the user pans or zooms it, and restores it once the
+ * gesture has ended. During an interaction the chart is drawn without antialiasing, with speed rendering
+ * hints and with simplified candle wicks; {@link #getSettleDelay()} milliseconds after the last pan or
+ * zoom step the chart is drawn once more in full quality.
+ * <p>
+ * The draw times of the chart are recorded separately for both modes. Must be used on the event
+ * dispatch thread.
+ */
+public class InteractionQuality implements ChartProgressListener {
+
+    private static final Logger log = LoggerFactory.getLogger(InteractionQuality.class);
+
+    public static final int DEFAULT_SETTLE_DELAY = 150; // milliseconds
+
+    private final ChartPanel chartPanel;
+    private final Timer settleTimer;
+    private boolean enabled = true;
+
+    private JFreeChart interactiveChart; // the chart drawn in interaction quality, null when not interacting
+    private boolean savedAntiAlias;
+    private Object savedTextAntiAlias;
+    private Object savedRendering;
+
+    private JFreeChart listenedChart;
+    private long drawStartNanos;
+    private boolean drawInteractive;
+
+    private long interactiveFrames = 0;
+    private long interactiveNanos = 0;
+    private long fullQualityFrames = 0;
+    private long fullQualityNanos = 0;
+
+    /**
+     * @param chartPanel the panel showing the chart; the chart may be replaced later
+     */
+    public InteractionQuality(ChartPanel chartPanel) {
+        this.chartPanel = chartPanel;
+        this.settleTimer = new Timer(DEFAULT_SETTLE_DELAY, e -> settle());
+        this.settleTimer.setRepeats(false);
+        listenTo(chartPanel.getChart());
+    }
+
+    /**
+     * Tells that the user moved the chart, e.g. one step of a drag, a wheel notch or a key press. The
+     * first step of a gesture switches to interaction quality; every step postpones the full quality draw.
+     */
+    public void interact() {
+        if (!enabled) {
+            return;
+        }
+        final JFreeChart chart = chartPanel.getChart();
+        if (chart == null) {
+            return;
+        }
+        listenTo(chart);
+        if (interactiveChart != chart) {
+            settle(); // restores a replaced chart
+            interactiveChart = chart;
+            savedAntiAlias = chart.getAntiAlias();
+            savedTextAntiAlias = chart.getTextAntiAlias();
+            savedRendering = chart.getRenderingHints().get(RenderingHints.KEY_RENDERING);
+            chart.getRenderingHints().put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            setSimplifiedWicks(chart, true);
+            chart.setTextAntiAlias(false);
+            chart.setAntiAlias(false); // redraws the chart
+        }
+        settleTimer.restart();
+    }
+
+    /** Draws the chart in full quality again, if it is drawn in interaction quality. */
+    public void settle() {
+        settleTimer.stop();
+        final JFreeChart chart = interactiveChart;
+        if (chart == null) {
+            return;
+        }
+        interactiveChart = null;
+        if (savedRendering != null) {
+            chart.getRenderingHints().put(RenderingHints.KEY_RENDERING, savedRendering);
+        } else {
+            chart.getRenderingHints().remove(RenderingHints.KEY_RENDERING);
+        }
+        if (savedTextAntiAlias != null) {
+            chart.getRenderingHints().put(RenderingHints.KEY_TEXT_ANTIALIASING, savedTextAntiAlias);
+        } else {
+            chart.getRenderingHints().remove(RenderingHints.KEY_TEXT_ANTIALIASING);
+        }
+        setSimplifiedWicks(chart, false);
+        chart.setAntiAlias(savedAntiAlias); // redraws the chart
+    }
+
+    /** @return whether the chart is currently drawn in interaction quality */
+    public boolean isInteracting() {
+        return interactiveChart != null;
+    }
+
+    /**
+     * @param enabled whether pans and zooms lower the rendering quality (enabled by default)
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            settle();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param millis how long after the last pan or zoom step the chart is drawn in full quality again
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public void setSettleDelay(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Settle delay must not be negative: " + millis);
+        }
+        settleTimer.setInitialDelay(millis);
+    }
+
+    public int getSettleDelay() {
+        return settleTimer.getInitialDelay();
+    }
+
+    @Override
+    public void chartProgress(ChartProgressEvent event) {
+        if (event.getChart() != listenedChart) {
+            return;
+        }
+        if (event.getType() == ChartProgressEvent.DRAWING_STARTED) {
+            drawStartNanos = System.nanoTime();
+            drawInteractive = isInteracting();
+        } else if (event.getType() == ChartProgressEvent.DRAWING_FINISHED && drawStartNanos != 0) {
+            final long nanos = System.nanoTime() - drawStartNanos;
+            drawStartNanos = 0;
+            if (drawInteractive) {
+                interactiveFrames++;
+                interactiveNanos += nanos;
+            } else {
+                fullQualityFrames++;
+                fullQualityNanos += nanos;
+            }
+            log.debug("{} frame drawn in {} ms", drawInteractive ? "Interaction quality" : "Full quality", nanos / 1_000_000.0);
+        }
+    }
+
+    /** @return how many frames were drawn in interaction quality */
+    public long getInteractiveFrameCount() {
+        return interactiveFrames;
+    }
+
+    /** @return the average draw time of the frames drawn in interaction quality, in milliseconds; 0 if none */
+    public double getAverageInteractiveFrameMillis() {
+        return (interactiveFrames == 0) ? 0 : interactiveNanos / 1_000_000.0 / interactiveFrames;
+    }
+
+    /** @return how many frames were drawn in full quality */
+    public long getFullQualityFrameCount() {
+        return fullQualityFrames;
+    }
+
+    /** @return the average draw time of the frames drawn in full quality, in milliseconds; 0 if none */
+    public double getAverageFullQualityFrameMillis() {
+        return (fullQualityFrames == 0) ? 0 : fullQualityNanos / 1_000_000.0 / fullQualityFrames;
+    }
+
+    private void listenTo(JFreeChart chart) {
+        if (chart == listenedChart) {
+            return;
+        }
+        if (listenedChart != null) {
+            listenedChart.removeProgressListener(this);
+        }
+        listenedChart = chart;
+        drawStartNanos = 0;
+        if (chart != null) {
+            chart.addProgressListener(this);
+        }
+    }
+
+    private static void setSimplifiedWicks(JFreeChart chart, boolean simplified) {
+        for (Object subplot : subplots(chart.getPlot())) {
+            final XYPlot plot = (XYPlot) subplot;
+            for (int i = 0; i < plot.getRendererCount(); i++) {
+                if (plot.getRenderer(i) instanceof TacCandlestickRenderer) {
+                    ((TacCandlestickRenderer) plot.getRenderer(i)).setSimplifiedWicks(simplified);
+                }
+            }
+        }
+    }
+
+    private static List<?> subplots(Plot plot) {
+        if (plot instanceof CombinedDomainXYPlot) {
+            return ((CombinedDomainXYPlot) plot).getSubplots();
+        }
+        return (plot instanceof XYPlot) ? Collections.singletonList(plot) : Collections.emptyList();
+    }
+}
@@ -1,5 +1,7 @@
 package de.sjwimmer.ta4jchart.chartbuilder.mouse;
 
+import de.sjwimmer.ta4jchart.chartbuilder.listener.DomainAxisRangeChangeHandler;
+import de.sjwimmer.ta4jchart.chartbuilder.listener.InteractionQuality;
 import de.sjwimmer.ta4jchart.chartbuilder.toolbar.TacAutoRangeButton;
 import de.sjwimmer.ta4jchart.chartbuilder.utils.TacChartUtils;
 import org.jfree.chart.ChartPanel;
@@ -21,6 +23,8 @@ public class PanAndShiftZoomHandler extends MouseAdapter implements MouseWheelLi
 
     private final ChartPanel chartPanel;
     private final TacAutoRangeButton tacAutoRangeButton; // Can be null if not used
+    private final DomainAxisRangeChangeHandler axisRangeChangeHandler; // Can be null; told about pans to prefetch ahead
+    private InteractionQuality interactionQuality; // Can be null; lowers the rendering quality while panning and zooming
 
     private boolean panningActive = false;
     private Point panLastPoint;
@@ -29,12 +33,25 @@ public class PanAndShiftZoomHandler extends MouseAdapter implements MouseWheelLi
     private Point zoomInitialScreenPoint; // Store the initial point for zoom gesture detection
 
     public PanAndShiftZoomHandler(ChartPanel chartPanel, TacAutoRangeButton tacAutoRangeButton) {
+        this(chartPanel, tacAutoRangeButton, null);
+    }
+
+    public PanAndShiftZoomHandler(ChartPanel chartPanel, TacAutoRangeButton tacAutoRangeButton,
+                                  DomainAxisRangeChangeHandler axisRangeChangeHandler) {
         this.chartPanel = chartPanel;
         this.tacAutoRangeButton = tacAutoRangeButton;
+        this.axisRangeChangeHandler = axisRangeChangeHandler;
         // Register this handler as a mouse wheel listener
         chartPanel.addMouseWheelListener(this);
     }
 
+    /**
+     * @param interactionQuality lowers the rendering quality during pans and wheel zooms, or {@code null}
+     */
+    public void setInteractionQuality(InteractionQuality interactionQuality) {
+        this.interactionQuality = interactionQuality;
+    }
+
     @Override
     public void mousePressed(MouseEvent e) {
         if (e.getButton() != MouseEvent.BUTTON1) {
@@ -111,23 +128,29 @@ public class PanAndShiftZoomHandler extends MouseAdapter implements MouseWheelLi
                 double chartWidth = dataArea.getWidth();
                 double panPercentX = -dx / chartWidth; // Negative: drag right moves time forward (data left)
 
-                domainAxis.pan(panPercentX);
-                
-                // Handle Y-axis panning when auto-range is disabled
-                if (tacAutoRangeButton != null && !tacAutoRangeButton.isSelected() && rangeAxis != null) {
-                    double dy = e.getY() - panLastPoint.getY();
-                    double chartHeight = dataArea.getHeight();
-                    if (chartHeight > 0) {
-                        double panPercentY = dy / chartHeight; // Positive: drag down moves values up
-                        rangeAxis.pan(panPercentY);
+                final ValueAxis panDomainAxis = domainAxis;
+                final ValueAxis panRangeAxis = rangeAxis;
+                batch(() -> {
+                    if (axisRangeChangeHandler != null) {
+                        axisRangeChangeHandler.recordPan(panPercentX * panDomainAxis.getRange().getLength());
                     }
-                }
-                
-                panLastPoint = e.getPoint();
+                    panDomainAxis.pan(panPercentX);
 
-                if (tacAutoRangeButton != null && tacAutoRangeButton.isSelected()) {
-                    TacChartUtils.applyAutoRangeState(chart, true); 
-                }
+                    // Handle Y-axis panning when auto-range is disabled
+                    if (tacAutoRangeButton != null && !tacAutoRangeButton.isSelected() && panRangeAxis != null) {
+                        double dy = e.getY() - panLastPoint.getY();
+                        double chartHeight = dataArea.getHeight();
+                        if (chartHeight > 0) {
+                            double panPercentY = dy / chartHeight; // Positive: drag down moves values up
+                            panRangeAxis.pan(panPercentY);
+                        }
+                    }
+
+                    if (tacAutoRangeButton != null && tacAutoRangeButton.isSelected()) {
+                        TacChartUtils.applyAutoRangeState(chart, true);
+                    }
+                });
+                panLastPoint = e.getPoint();
             }
             e.consume();
         } else if (delegatingToChartPanelZoom) {
@@ -232,7 +255,8 @@ public class PanAndShiftZoomHandler extends MouseAdapter implements MouseWheelLi
             double newUpper = newLower + newLength;
             
             // Set the new range
-            rangeAxis.setRange(newLower, newUpper);
+            final ValueAxis zoomRangeAxis = rangeAxis;
+            batch(() -> zoomRangeAxis.setRange(newLower, newUpper));
             e.consume();
         }
         // Otherwise zoom X axis (default behavior)
@@ -254,15 +278,34 @@ public class PanAndShiftZoomHandler extends MouseAdapter implements MouseWheelLi
             double newLower = pointOnAxis - (newLength * positionFactor);
             double newUpper = newLower + newLength;
 
-            // Set the new range
-            domainAxis.setRange(newLower, newUpper);
-
-            // Handle Y-axis auto-range if needed
-            if (tacAutoRangeButton != null && tacAutoRangeButton.isSelected()) {
-                TacChartUtils.applyAutoRangeState(chart, true);
-            }
+            // Set the new range, and handle Y-axis auto-range if needed, in one chart update
+            final ValueAxis zoomDomainAxis = domainAxis;
+            batch(() -> {
+                zoomDomainAxis.setRange(newLower, newUpper);
+                if (tacAutoRangeButton != null && tacAutoRangeButton.isSelected()) {
+                    TacChartUtils.applyAutoRangeState(chart, true);
+                }
+            });
             
             e.consume();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs a change of the axes as one chart update, see {@link DomainAxisRangeChangeHandler#runBatch(Runnable)}.
+     * The switch to interaction quality runs within the batch, so its renderer changes share that update.
+     */
+    private void batch(Runnable change) {
+        final Runnable interaction = () -> {
+            if (interactionQuality != null) {
+                interactionQuality.interact();
+            }
+            change.run();
+        };
+        if (axisRangeChangeHandler != null) {
+            axisRangeChangeHandler.runBatch(interaction);
+        } else {
+            interaction.run();
+        }
+    }
+}
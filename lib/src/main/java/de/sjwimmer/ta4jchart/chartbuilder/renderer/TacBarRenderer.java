@@ -9,10 +9,12 @@ import java.awt.*;
 public class TacBarRenderer extends XYBarRenderer {
 
     private final Color barColor;
+    // drawItem asks for the painter once per bar; hand out the same stateless instance every time
+    private final XYBarPainter barPainter = new StandardXYBarPainter();
 
     public TacBarRenderer(Color barColor) {
         this.barColor = barColor;
-        setBarPainter(new StandardXYBarPainter());
+        setBarPainter(barPainter);
         setShadowVisible(false);
     }
 
@@ -23,6 +25,6 @@ public class TacBarRenderer extends XYBarRenderer {
 
     @Override
     public XYBarPainter getBarPainter() {
-        return new StandardXYBarPainter();
+        return barPainter;
     }
 }
@@ -1,17 +1,36 @@
 package de.sjwimmer.ta4jchart.chartbuilder.renderer;
 
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.EntityCollection;
 import org.jfree.chart.labels.XYToolTipGenerator;
+import org.jfree.chart.plot.CrosshairState;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.CandlestickRenderer;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
+import org.jfree.chart.ui.RectangleEdge;
 import org.jfree.data.xy.OHLCDataset;
+import org.jfree.data.xy.XYDataset;
 
 import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
 
 /**
  * TA4J candlestick renderer that extends CandlestickRenderer with custom item painting and tooltip handling.
  * Paints candlesticks based on open/close values and provides conditional tooltip generation.
+ * <p>
+ * Instead of drawing every candle with its own shape and line calls, the items of a series pass are
+ * collected into paths: the bodies of the up and down candles, and the outlines and wicks of each
+ * direction. Each path is filled or stroked once when the pass ends, and the candle width is calculated
+ * once per pass instead of once per item. Volume bars and interval based widths fall back to the
+ * per-item drawing of CandlestickRenderer. With simplified wicks, e.g. while the chart is panned, each
+ * candle gets a single line from its low to its high, and no body outline.
  */
 public class TacCandlestickRenderer extends CandlestickRenderer {
     private boolean manualTooltip;
+    private boolean simplifiedWicks;
 
     /**
      * Gets the paint for the candlestick item based on open and close values.
@@ -32,6 +51,162 @@ public class TacCandlestickRenderer extends CandlestickRenderer {
         }
     }
 
+    /**
+     * Sets whether the candles are drawn with one line from low to high instead of two wicks and a body
+     * outline; cheaper to draw, e.g. while the chart is panned. Only applies to the batched drawing.
+     * @param simplifiedWicks whether to simplify the wicks
+     */
+    public void setSimplifiedWicks(boolean simplifiedWicks) {
+        if (this.simplifiedWicks != simplifiedWicks) {
+            this.simplifiedWicks = simplifiedWicks;
+            fireChangeEvent();
+        }
+    }
+
+    /**
+     * Whether the candles are drawn with one line from low to high.
+     * @return true if the wicks are simplified
+     */
+    public boolean isSimplifiedWicks() {
+        return simplifiedWicks;
+    }
+
+    /**
+     * Initialises the renderer for a plot drawing. Returns a state that collects the candles into paths,
+     * unless this drawing needs the per-item drawing of CandlestickRenderer.
+     * @param g2 the graphics device
+     * @param dataArea the area inside the axes
+     * @param plot the plot
+     * @param dataset the dataset
+     * @param info the plot rendering info, may be null
+     * @return the renderer state
+     */
+    @Override
+    public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea, XYPlot plot, XYDataset dataset, PlotRenderingInfo info) {
+        final XYItemRendererState state = super.initialise(g2, dataArea, plot, dataset, info);
+        if (getDrawVolume() || getAutoWidthMethod() == WIDTHMETHOD_INTERVALDATA || !(dataset instanceof OHLCDataset)) {
+            return state;
+        }
+        final ValueAxis axis = plot.getDomainAxis();
+        final RectangleEdge edge = plot.getDomainAxisEdge();
+        final double lower = axis.getLowerBound();
+        final double maxCandleWidth = Math.abs(axis.valueToJava2D(lower + getMaxCandleWidthInMilliseconds(), dataArea, edge)
+                - axis.valueToJava2D(lower, dataArea, edge));
+        return new CandleBatch(g2, dataArea, plot.getOrientation() == PlotOrientation.HORIZONTAL, maxCandleWidth, info);
+    }
+
+    /**
+     * Adds the candle of an item to the paths of the pass, or draws it directly if the drawing is not batched.
+     */
+    @Override
+    public void drawItem(Graphics2D g2, XYItemRendererState state, Rectangle2D dataArea, PlotRenderingInfo info,
+                         XYPlot plot, ValueAxis domainAxis, ValueAxis rangeAxis, XYDataset dataset,
+                         int series, int item, CrosshairState crosshairState, int pass) {
+        if (!(state instanceof CandleBatch)) {
+            super.drawItem(g2, state, dataArea, info, plot, domainAxis, rangeAxis, dataset, series, item, crosshairState, pass);
+            return;
+        }
+        final CandleBatch batch = (CandleBatch) state;
+        final OHLCDataset data = (OHLCDataset) dataset;
+        final double open = data.getOpenValue(series, item);
+        final double high = data.getHighValue(series, item);
+        final double low = data.getLowValue(series, item);
+        final double close = data.getCloseValue(series, item);
+        if (Double.isNaN(open) || Double.isNaN(high) || Double.isNaN(low) || Double.isNaN(close)) {
+            return;
+        }
+        final RectangleEdge domainEdge = plot.getDomainAxisEdge();
+        if (Double.isNaN(batch.stickWidth)) {
+            batch.stickWidth = calculateStickWidth(batch, data, series, domainAxis, domainEdge);
+        }
+
+        final RectangleEdge rangeEdge = plot.getRangeAxisEdge();
+        final double xx = domainAxis.valueToJava2D(data.getXValue(series, item), dataArea, domainEdge);
+        final double yyHigh = rangeAxis.valueToJava2D(high, dataArea, rangeEdge);
+        final double yyLow = rangeAxis.valueToJava2D(low, dataArea, rangeEdge);
+        final double yyMaxOpenClose = rangeAxis.valueToJava2D(Math.max(open, close), dataArea, rangeEdge);
+        final double yyMinOpenClose = rangeAxis.valueToJava2D(Math.min(open, close), dataArea, rangeEdge);
+        final double bodyTop = Math.min(yyMaxOpenClose, yyMinOpenClose); // screen y, depends on the axis direction
+        final double bodyHeight = Math.abs(yyMaxOpenClose - yyMinOpenClose);
+        final double left = xx - batch.stickWidth / 2;
+
+        final boolean up = open <= close; // same direction as getItemPaint
+        final Path2D bodies = up ? batch.upBodies : batch.downBodies;
+        final Path2D outlines = up ? batch.upOutlines : batch.downOutlines;
+        batch.appendRect(bodies, left, bodyTop, batch.stickWidth, bodyHeight);
+        if (simplifiedWicks) {
+            batch.appendLine(outlines, xx, yyHigh, yyLow);
+        } else {
+            batch.appendRect(outlines, left, bodyTop, batch.stickWidth, bodyHeight);
+            if (high > Math.max(open, close)) {
+                batch.appendLine(outlines, xx, yyHigh, yyMaxOpenClose);
+            }
+            if (low < Math.min(open, close)) {
+                batch.appendLine(outlines, xx, yyLow, yyMinOpenClose);
+            }
+        }
+
+        final EntityCollection entities = batch.getEntityCollection();
+        if (entities != null) {
+            final double base = Math.min(yyHigh, yyLow);
+            final double length = Math.abs(yyHigh - yyLow);
+            final Rectangle2D hotspot = batch.horizontal
+                    ? new Rectangle2D.Double(base, left, length, batch.stickWidth)
+                    : new Rectangle2D.Double(left, base, batch.stickWidth, length);
+            addEntity(entities, hotspot, dataset, series, item, 0.0, 0.0);
+        }
+    }
+
+    /**
+     * Calculates the width of the candle bodies the same way CandlestickRenderer does, but once for the
+     * items of a pass instead of once for every item.
+     */
+    private double calculateStickWidth(CandleBatch batch, OHLCDataset data, int series, ValueAxis domainAxis, RectangleEdge domainEdge) {
+        if (getCandleWidth() > 0) {
+            return getCandleWidth();
+        }
+        double xxWidth = 0;
+        final int itemCount = data.getItemCount(series);
+        if (getAutoWidthMethod() == WIDTHMETHOD_AVERAGE) {
+            xxWidth = (batch.horizontal ? batch.dataArea.getHeight() : batch.dataArea.getWidth()) / itemCount;
+        } else if (getAutoWidthMethod() == WIDTHMETHOD_SMALLEST) {
+            xxWidth = batch.dataArea.getWidth();
+            double lastPos = Double.NaN;
+            for (int i = batch.getFirstItemIndex(); i <= batch.getLastItemIndex() && i < itemCount; i++) {
+                final double pos = domainAxis.valueToJava2D(data.getXValue(series, i), batch.dataArea, domainEdge);
+                if (!Double.isNaN(lastPos)) {
+                    xxWidth = Math.min(xxWidth, Math.abs(pos - lastPos));
+                }
+                lastPos = pos;
+            }
+        }
+        xxWidth -= 2 * getAutoWidthGap();
+        xxWidth *= getAutoWidthFactor();
+        xxWidth = Math.min(xxWidth, batch.maxCandleWidth);
+        return Math.max(Math.min(3, batch.maxCandleWidth), xxWidth);
+    }
+
+    /**
+     * Fills and strokes the paths collected during a pass, one call per path.
+     */
+    private void drawBatch(CandleBatch batch, int series) {
+        final Graphics2D g2 = batch.g2;
+        final Paint seriesPaint = lookupSeriesPaint(series);
+        final Paint upPaint = getUpPaint() != null ? getUpPaint() : seriesPaint;
+        final Paint downPaint = getDownPaint() != null ? getDownPaint() : seriesPaint;
+        final Paint outlinePaint = getUseOutlinePaint() ? lookupSeriesOutlinePaint(series) : null;
+
+        g2.setStroke(lookupSeriesStroke(series));
+        g2.setPaint(upPaint);
+        g2.fill(batch.upBodies);
+        g2.setPaint(outlinePaint != null ? outlinePaint : upPaint);
+        g2.draw(batch.upOutlines);
+        g2.setPaint(downPaint);
+        g2.fill(batch.downBodies);
+        g2.setPaint(outlinePaint != null ? outlinePaint : downPaint);
+        g2.draw(batch.downOutlines);
+    }
+
     /**
      * Gets the tooltip generator for the specified series and item.
      * Returns manual tooltip generator if set, otherwise returns default tooltip generator.
@@ -57,4 +232,70 @@ public class TacCandlestickRenderer extends CandlestickRenderer {
         manualTooltip = true;
         super.setSeriesToolTipGenerator(series, generator);
     }
+
+    /**
+     * Renderer state that collects the candles of a series pass into paths and draws them when the pass ends.
+     */
+    private final class CandleBatch extends XYItemRendererState {
+        private final Graphics2D g2;
+        private final Rectangle2D dataArea;
+        private final boolean horizontal;
+        private final double maxCandleWidth;
+        private final Path2D upBodies = new Path2D.Double();
+        private final Path2D downBodies = new Path2D.Double();
+        private final Path2D upOutlines = new Path2D.Double();
+        private final Path2D downOutlines = new Path2D.Double();
+        private double stickWidth = Double.NaN;
+
+        private CandleBatch(Graphics2D g2, Rectangle2D dataArea, boolean horizontal, double maxCandleWidth, PlotRenderingInfo info) {
+            super(info);
+            this.g2 = g2;
+            this.dataArea = dataArea;
+            this.horizontal = horizontal;
+            this.maxCandleWidth = maxCandleWidth;
+        }
+
+        @Override
+        public void startSeriesPass(XYDataset dataset, int series, int firstItem, int lastItem, int pass, int passCount) {
+            super.startSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+            upBodies.reset();
+            downBodies.reset();
+            upOutlines.reset();
+            downOutlines.reset();
+            stickWidth = Double.NaN;
+        }
+
+        @Override
+        public void endSeriesPass(XYDataset dataset, int series, int firstItem, int lastItem, int pass, int passCount) {
+            super.endSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+            drawBatch(this, series);
+        }
+
+        /** Appends a rectangle given in vertical plot coordinates. */
+        private void appendRect(Path2D path, double x, double y, double width, double height) {
+            if (horizontal) {
+                path.moveTo(y, x);
+                path.lineTo(y + height, x);
+                path.lineTo(y + height, x + width);
+                path.lineTo(y, x + width);
+            } else {
+                path.moveTo(x, y);
+                path.lineTo(x + width, y);
+                path.lineTo(x + width, y + height);
+                path.lineTo(x, y + height);
+            }
+            path.closePath();
+        }
+
+        /** Appends a vertical line given in vertical plot coordinates. */
+        private void appendLine(Path2D path, double x, double y1, double y2) {
+            if (horizontal) {
+                path.moveTo(y1, x);
+                path.lineTo(y2, x);
+            } else {
+                path.moveTo(x, y1);
+                path.lineTo(x, y2);
+            }
+        }
+    }
 }
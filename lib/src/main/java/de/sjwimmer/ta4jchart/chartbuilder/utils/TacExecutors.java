@@ -0,0 +1,70 @@
+package de.sjwimmer.ta4jchart.chartbuilder.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared thread pools for chart work that must not run on the event dispatch thread.
+ * The threads are daemons, so an open chart never keeps the JVM alive on its own.
+ */
+public final class TacExecutors {
+
+    private static final ExecutorService BACKGROUND = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1), daemonThreadFactory("tac-background"));
+
+    private static final ExecutorService INDICATORS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), daemonThreadFactory("tac-indicators"));
+
+    private static final ExecutorService WINDOWS = Executors.newSingleThreadExecutor(daemonThreadFactory("tac-windows"));
+
+    private static final ExecutorService WINDOW_WORKERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), daemonThreadFactory("tac-window-workers"));
+
+    private TacExecutors() {
+    }
+
+    /** @return the shared pool for background computations (pyramids, indicator values, ...) */
+    public static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * @return the pool that computes indicator values, one thread per core; callers must not submit
+     * indicators that share sub-indicators as separate tasks, since ta4j's caches are not safe to
+     * fill concurrently (see {@code IndicatorDependencies})
+     */
+    public static ExecutorService indicators() {
+        return INDICATORS;
+    }
+
+    /**
+     * @return the thread that prepares dataset windows; a single thread, so window requests are
+     * handled in the order of the axis changes
+     */
+    public static ExecutorService windows() {
+        return WINDOWS;
+    }
+
+    /**
+     * @return the pool that prepares the windows of several datasets in parallel, one thread per
+     * core; kept apart from the background pool so a long computation never delays a pan
+     */
+    public static ExecutorService windowWorkers() {
+        return WINDOW_WORKERS;
+    }
+
+    /**
+     * @param prefix the thread name prefix
+     * @return a factory creating named daemon threads
+     */
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
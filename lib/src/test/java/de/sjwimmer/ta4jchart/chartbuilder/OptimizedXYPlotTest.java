@@ -0,0 +1,92 @@
+package de.sjwimmer.ta4jchart.chartbuilder;
+
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.BarSeriesColumns;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowOHLCDataset;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.renderer.xy.CandlestickRenderer;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeries;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OptimizedXYPlotTest {
+
+    @Test
+    public void testPanRendersOnlyNewlyExposedTiles() {
+        final XYSeries series = new XYSeries("values");
+        for (int i = 0; i < 1000; i++) {
+            series.add(i, 100 + i % 17);
+        }
+        final NumberAxis domainAxis = new NumberAxis();
+        final NumberAxis rangeAxis = new NumberAxis();
+        rangeAxis.setRange(90, 130);
+        final OptimizedXYPlot plot = new OptimizedXYPlot(new XYSeriesCollection(series), domainAxis, rangeAxis, new XYLineAndShapeRenderer(true, false));
+        plot.setTiledRendering(true);
+        final JFreeChart chart = new JFreeChart(plot);
+        final PlotTileCache tiles = plot.getTileCache();
+
+        domainAxis.setRange(100, 200);
+        draw(chart);
+        final long tilesInView = tiles.getMisses();
+        assertTrue(tilesInView > 1);
+        assertEquals(0, tiles.getHits());
+
+        domainAxis.setRange(102, 202); // a pan of a few pixels
+        draw(chart);
+        assertTrue(tiles.getMisses() - tilesInView <= 1, "misses: " + tiles.getMisses());
+        assertTrue(tiles.getHits() >= tilesInView - 1, "hits: " + tiles.getHits());
+
+        final long misses = tiles.getMisses();
+        rangeAxis.setRange(80, 140); // a new scale renders every tile again
+        draw(chart);
+        assertTrue(tiles.getMisses() - misses >= tilesInView - 1, "misses: " + (tiles.getMisses() - misses));
+    }
+
+    @Test
+    public void testReplacedLastBarRendersTheCachedTilesAgain() {
+        final double[] closes = new double[1000];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = 100 + i % 17;
+        }
+        final BaseBarSeries series = new BaseBarSeries("bars", BarSeriesHelper.createBars(closes));
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "bars", 0);
+        dataset.updateWindow(0, 999);
+        final NumberAxis domainAxis = new NumberAxis();
+        final NumberAxis rangeAxis = new NumberAxis();
+        rangeAxis.setRange(0, 3000);
+        final OptimizedXYPlot plot = new OptimizedXYPlot(dataset, domainAxis, rangeAxis, new CandlestickRenderer());
+        plot.setTiledRendering(true);
+        final JFreeChart chart = new JFreeChart(plot);
+        final PlotTileCache tiles = plot.getTileCache();
+
+        domainAxis.setRange(900, 1000);
+        draw(chart);
+        final long tilesInView = tiles.getMisses();
+        assertTrue(tilesInView > 2);
+
+        final Bar last = series.getLastBar();
+        series.addBar(new BaseBar(last.getTimePeriod(), last.getEndTime(), 120, 200, 90, 180, 10), true);
+        BarSeriesColumns.update(series);
+        dataset.updateWindow(0, 999);
+        draw(chart);
+        assertEquals(2 * tilesInView, tiles.getMisses(), "hits: " + tiles.getHits());
+    }
+
+    private static void draw(JFreeChart chart) {
+        final BufferedImage image = new BufferedImage(800, 400, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle2D.Double(0, 0, 800, 400));
+        g2.dispose();
+    }
+}
@@ -0,0 +1,64 @@
+package de.sjwimmer.ta4jchart.chartbuilder;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OptmizedXYLineAndShapeRendererTest {
+
+    /** @return how many pixels show the fill paint of the shapes, and how many the line, when the given number of points are visible */
+    private static int[] drawPoints(int visiblePoints) {
+        final XYSeries series = new XYSeries("values");
+        for (int i = 0; i < 1000; i++) {
+            series.add(i, (i % 10 == 5) ? Double.NaN : 100 + i % 17);
+        }
+        final OptmizedXYLineAndShapeRenderer renderer = new OptmizedXYLineAndShapeRenderer(true, true);
+        renderer.setSeriesPaint(0, Color.BLUE);
+        renderer.setSeriesShape(0, new Ellipse2D.Double(-3, -3, 6, 6));
+        renderer.setUseFillPaint(true);
+        renderer.setSeriesFillPaint(0, Color.RED);
+        final NumberAxis domainAxis = new NumberAxis();
+        domainAxis.setRange(0, visiblePoints);
+        final NumberAxis rangeAxis = new NumberAxis();
+        rangeAxis.setRange(95, 110); // some points are above the data area
+        final JFreeChart chart = new JFreeChart(null, null, new OptimizedXYPlot(new XYSeriesCollection(series), domainAxis, rangeAxis, renderer), false);
+
+        final BufferedImage image = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = image.createGraphics();
+        chart.setAntiAlias(false);
+        chart.draw(g2, new Rectangle2D.Double(0, 0, 600, 300));
+        g2.dispose();
+        final int[] pixels = new int[2];
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                if (image.getRGB(x, y) == Color.RED.getRGB()) {
+                    pixels[0]++;
+                } else if (image.getRGB(x, y) == Color.BLUE.getRGB()) {
+                    pixels[1]++;
+                }
+            }
+        }
+        return pixels;
+    }
+
+    @Test
+    public void testShapesAreOnlyDrawnWhileThePointsAreSparse() {
+        final int[] sparse = drawPoints(30);
+        assertTrue(sparse[0] > 0, "shapes of a sparse series");
+        assertTrue(sparse[1] > 0, "line of a sparse series");
+        final int[] dense = drawPoints(900);
+        assertEquals(0, dense[0], "shapes of a dense series");
+        assertTrue(dense[1] > 0, "line of a dense series");
+    }
+}
@@ -0,0 +1,88 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeries;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class AsOfIndexMapTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static BaseBarSeries createSeries(String name, int bars, int daysPerBar) {
+        final BaseBarSeries series = new BaseBarSeries(name);
+        for (int i = 0; i < bars; i++) {
+            addBar(series, daysPerBar);
+        }
+        return series;
+    }
+
+    private static void addBar(BaseBarSeries series, int daysPerBar) {
+        final ZonedDateTime end = series.isEmpty() ? START.plusDays(daysPerBar) : series.getLastBar().getEndTime().plusDays(daysPerBar);
+        series.addBar(Duration.ofDays(daysPerBar), end, 1, 2, 0.5, 1.5, 10);
+    }
+
+    /** Checks every bar against a linear search for the last bar of {@code to} ending at or before it. */
+    private static void assertMapsAsOf(AsOfIndexMap map, BarSeriesColumns from, BarSeriesColumns to) {
+        for (int i = from.getBeginIndex(); i <= from.getEndIndex(); i++) {
+            int expected = -1;
+            for (int j = to.getBeginIndex(); j <= to.getEndIndex() && to.getEndTime(j) <= from.getEndTime(i); j++) {
+                expected = j;
+            }
+            assertEquals(expected, map.get(i), "bar " + i);
+        }
+    }
+
+    @Test
+    public void testMapIsExtendedInPlaceAsBothSeriesGrow() {
+        final BaseBarSeries chart = createSeries("D1", 20, 1);
+        final BaseBarSeries indicator = createSeries("D2", 9, 2);
+        final AsOfIndexMap initial = AsOfIndexMap.of(BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+        assertMapsAsOf(initial, BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+
+        addBar(chart, 1);
+        addBar(indicator, 2);
+        final AsOfIndexMap first = AsOfIndexMap.of(BarSeriesColumns.update(chart), BarSeriesColumns.update(indicator));
+        assertSame(initial.getIndices(), first.getIndices());
+        assertMapsAsOf(first, BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+
+        addBar(chart, 1);
+        addBar(chart, 1);
+        final AsOfIndexMap second = AsOfIndexMap.of(BarSeriesColumns.update(chart), BarSeriesColumns.of(indicator));
+        assertSame(initial.getIndices(), second.getIndices());
+        assertMapsAsOf(second, BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+    }
+
+    @Test
+    public void testReplacedLastBarIsMappedAgain() {
+        final BaseBarSeries chart = createSeries("D1", 20, 1);
+        final BaseBarSeries indicator = createSeries("D2", 9, 2);
+        AsOfIndexMap.of(BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+
+        // The indicator's in-progress bar closes later than before: the last chart bars map to the one before it
+        final ZonedDateTime end = indicator.getLastBar().getEndTime().plusDays(3);
+        indicator.addBar(new BaseBar(Duration.ofDays(5), end, 1, 2, 0.5, 1.5, 10), true);
+        final AsOfIndexMap map = AsOfIndexMap.of(BarSeriesColumns.of(chart), BarSeriesColumns.update(indicator));
+        assertMapsAsOf(map, BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+    }
+
+    @Test
+    public void testCappedSeriesKeepsMappingAfterItsArrayIsFull() {
+        final BaseBarSeries chart = createSeries("D1", 20, 1);
+        chart.setMaximumBarCount(20);
+        final BaseBarSeries indicator = createSeries("D2", 12, 2);
+        AsOfIndexMap.of(BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+
+        for (int i = 0; i < 25; i++) { // more than the array has room for
+            addBar(chart, 1);
+            final AsOfIndexMap map = AsOfIndexMap.of(BarSeriesColumns.update(chart), BarSeriesColumns.of(indicator));
+            assertMapsAsOf(map, BarSeriesColumns.of(chart), BarSeriesColumns.of(indicator));
+        }
+    }
+}
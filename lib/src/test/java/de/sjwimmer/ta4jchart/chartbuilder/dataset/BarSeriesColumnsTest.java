@@ -0,0 +1,133 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import de.sjwimmer.ta4jchart.chartbuilder.BarSeriesHelper;
+import org.jfree.data.Range;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeries;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BarSeriesColumnsTest {
+
+    @Test
+    public void testColumnsMatchBars() {
+        final BaseBarSeries barSeries = new BaseBarSeries("test", BarSeriesHelper.createBars());
+        final BarSeriesColumns columns = BarSeriesColumns.of(barSeries);
+
+        assertEquals(barSeries.getBarCount(), columns.size());
+        assertEquals(barSeries.getBeginIndex(), columns.getBeginIndex());
+        assertEquals(barSeries.getEndIndex(), columns.getEndIndex());
+        for (int i = barSeries.getBeginIndex(); i <= barSeries.getEndIndex(); i++) {
+            final Bar bar = barSeries.getBar(i);
+            assertEquals(bar.getEndTime().toInstant().toEpochMilli(), columns.getEndTime(i));
+            assertEquals(bar.getOpenPrice().doubleValue(), columns.getOpen(i));
+            assertEquals(bar.getHighPrice().doubleValue(), columns.getHigh(i));
+            assertEquals(bar.getLowPrice().doubleValue(), columns.getLow(i));
+            assertEquals(bar.getClosePrice().doubleValue(), columns.getClose(i));
+            assertEquals(bar.getVolume().doubleValue(), columns.getVolume(i));
+        }
+    }
+
+    @Test
+    public void testColumnsAreCachedUntilSeriesChanges() {
+        final BaseBarSeries barSeries = new BaseBarSeries("test", BarSeriesHelper.createBars());
+        final BarSeriesColumns columns = BarSeriesColumns.of(barSeries);
+        assertSame(columns, BarSeriesColumns.of(barSeries));
+
+        final Bar last = barSeries.getLastBar();
+        barSeries.addBar(Duration.ofDays(1), last.getEndTime().plusDays(1), 1, 2, 0.5, 1.5, 10);
+        final BarSeriesColumns rebuilt = BarSeriesColumns.of(barSeries);
+        assertNotSame(columns, rebuilt);
+        assertEquals(barSeries.getEndIndex(), rebuilt.getEndIndex());
+        assertEquals(1.5, rebuilt.getClose(barSeries.getEndIndex()));
+    }
+
+    @Test
+    public void testUpdateReadsTheReplacedLastBarAndKeepsTheOtherBars() {
+        final BaseBarSeries barSeries = new BaseBarSeries("test", BarSeriesHelper.createBars());
+        final BarSeriesColumns columns = BarSeriesColumns.of(barSeries);
+        final int lastIndex = barSeries.getEndIndex();
+
+        barSeries.addBar(new BaseBar(Duration.ofDays(1), barSeries.getLastBar().getEndTime(), 1, 2, 0.5, 42, 10), true);
+        assertSame(columns, BarSeriesColumns.of(barSeries)); // same bar count: not noticed without update()
+
+        final BarSeriesColumns updated = BarSeriesColumns.update(barSeries);
+        assertEquals(42, updated.getClose(lastIndex));
+        assertEquals(lastIndex, updated.getUnchangedEndIndex(columns)); // every bar but the last one is unchanged
+        assertEquals(updated.getEndIndex() + 1, updated.getUnchangedEndIndex(updated));
+        assertEquals(updated.getBeginIndex(), updated.getUnchangedEndIndex(BarSeriesColumns.of(new BaseBarSeries("other", BarSeriesHelper.createBars()))));
+    }
+
+    @Test
+    public void testCappedSeriesDropsRemovedBarsWithoutGrowing() {
+        final BaseBarSeries barSeries = new BaseBarSeries("test", BarSeriesHelper.createBars());
+        barSeries.setMaximumBarCount(5);
+        final BarSeriesColumns first = BarSeriesColumns.of(barSeries);
+        final long memoryBytes = first.getMemoryBytes();
+
+        BarSeriesColumns columns = first;
+        for (int i = 0; i < 1000; i++) {
+            final BarSeriesColumns previous = columns;
+            barSeries.addBar(Duration.ofDays(1), barSeries.getLastBar().getEndTime().plusDays(1), 1, 2, 0.5, i, 10);
+            columns = BarSeriesColumns.update(barSeries);
+            assertEquals(previous.getEndIndex(), columns.getUnchangedEndIndex(previous)); // extended, not rebuilt
+            assertTrue(columns.getMemoryBytes() <= 2 * memoryBytes);
+        }
+        assertEquals(barSeries.getBeginIndex(), columns.getBeginIndex());
+        assertEquals(barSeries.getEndIndex(), columns.getEndIndex());
+        assertEquals(5, columns.size());
+        assertEquals(first.getBeginIndex(), columns.getOrigin());
+        for (int i = barSeries.getBeginIndex(); i <= barSeries.getEndIndex(); i++) {
+            assertEquals(barSeries.getBar(i).getEndTime().toInstant().toEpochMilli(), columns.getEndTime(i));
+            assertEquals(barSeries.getBar(i).getClosePrice().doubleValue(), columns.getClose(i));
+        }
+    }
+
+    @Test
+    public void testCappedSeriesSurvivesMoreRemovedBarsThanItHolds() {
+        final BaseBarSeries barSeries = new BaseBarSeries("test", BarSeriesHelper.createBars());
+        barSeries.setMaximumBarCount(5);
+        BarSeriesColumns.of(barSeries);
+        for (int i = 0; i < 50; i++) { // a single update for all of them
+            barSeries.addBar(Duration.ofDays(1), barSeries.getLastBar().getEndTime().plusDays(1), 1, 2, 0.5, i, 10);
+        }
+        final BarSeriesColumns columns = BarSeriesColumns.update(barSeries);
+        assertEquals(barSeries.getBeginIndex(), columns.getBeginIndex());
+        assertEquals(5, columns.size());
+        for (int i = barSeries.getBeginIndex(); i <= barSeries.getEndIndex(); i++) {
+            assertEquals(barSeries.getBar(i).getClosePrice().doubleValue(), columns.getClose(i));
+        }
+    }
+
+    @Test
+    public void testRangeFollowsTheUpdatedBars() {
+        final BaseBarSeries barSeries = new BaseBarSeries("test", BarSeriesHelper.createBars());
+        final BarSeriesColumns columns = BarSeriesColumns.of(barSeries);
+        final int end = barSeries.getEndIndex();
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 1; i <= end; i++) {
+            low = Math.min(low, barSeries.getBar(i).getLowPrice().doubleValue());
+            high = Math.max(high, barSeries.getBar(i).getHighPrice().doubleValue());
+        }
+        assertEquals(new Range(low, high), columns.getRange(1, end));
+        assertEquals(new Range(low, high), columns.getRange(1, end + 100)); // clamped
+
+        barSeries.addBar(Duration.ofDays(1), barSeries.getLastBar().getEndTime().plusDays(1), 1, 1000, 0.5, 1.5, 10);
+        assertEquals(new Range(0.5, 1000), BarSeriesColumns.update(barSeries).getRange(end + 1, end + 1));
+        assertEquals(new Range(Math.min(low, 0.5), 1000), BarSeriesColumns.of(barSeries).getRange(1, end + 1));
+    }
+
+    @Test
+    public void testEmptySeries() {
+        assertTrue(BarSeriesColumns.of(null).isEmpty());
+        assertTrue(BarSeriesColumns.of(new BaseBarSeries("empty")).isEmpty());
+    }
+}
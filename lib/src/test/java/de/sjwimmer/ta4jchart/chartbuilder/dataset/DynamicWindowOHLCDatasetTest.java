@@ -0,0 +1,195 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import de.sjwimmer.ta4jchart.chartbuilder.BarSeriesHelper;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeries;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DynamicWindowOHLCDatasetTest {
+
+    private static BarSeries createSeries(int barCount) {
+        final double[] closes = new double[barCount];
+        for (int i = 0; i < barCount; i++) {
+            closes[i] = 100 + Math.sin(i / 3.0) * 10;
+        }
+        return new BaseBarSeries("test", BarSeriesHelper.createBars(closes));
+    }
+
+    @Test
+    public void testRawWindowWithoutLevelOfDetail() {
+        final BarSeries series = createSeries(64);
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "test", 0);
+        dataset.setDataAreaWidth(8);
+        dataset.updateWindow(10, 20);
+
+        assertEquals(11, dataset.getItemCount(0));
+        assertEquals(10, dataset.getXValue(0, 0));
+        assertEquals(series.getBar(10).getHighPrice().doubleValue(), dataset.getHighValue(0, 0));
+    }
+
+    @Test
+    public void testBarsAreMergedWhenSeveralShareAPixel() {
+        final BarSeries series = createSeries(64);
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "test", 0);
+        dataset.setLevelOfDetailEnabled(true);
+        dataset.setDataAreaWidth(8); // 64 bars on 8 pixels -> 8 bars per candle
+        dataset.updateWindow(0, 63);
+
+        assertEquals(8, dataset.getGroupSize());
+        assertEquals(8, dataset.getItemCount(0));
+        for (int item = 0; item < 8; item++) {
+            final int first = item * 8;
+            final int last = first + 7;
+            double high = Double.NEGATIVE_INFINITY;
+            double low = Double.POSITIVE_INFINITY;
+            double volume = 0;
+            for (int i = first; i <= last; i++) {
+                high = Math.max(high, series.getBar(i).getHighPrice().doubleValue());
+                low = Math.min(low, series.getBar(i).getLowPrice().doubleValue());
+                volume += series.getBar(i).getVolume().doubleValue();
+            }
+            assertEquals(first + 3.5, dataset.getXValue(0, item));
+            assertEquals(series.getBar(first).getOpenPrice().doubleValue(), dataset.getOpenValue(0, item));
+            assertEquals(series.getBar(last).getClosePrice().doubleValue(), dataset.getCloseValue(0, item));
+            assertEquals(high, dataset.getHighValue(0, item));
+            assertEquals(low, dataset.getLowValue(0, item));
+            assertEquals(volume, dataset.getVolumeValue(0, item), 1e-9);
+        }
+
+        // zooming back in returns the raw bars
+        dataset.updateWindow(0, 7);
+        assertEquals(1, dataset.getGroupSize());
+        assertEquals(8, dataset.getItemCount(0));
+    }
+
+    @Test
+    public void testPyramidLevelsMatchOnTheFlyMerging() {
+        final BarSeries series = createSeries(61); // odd size: the last group of each level is partial
+        final DynamicWindowOHLCDataset merged = new DynamicWindowOHLCDataset(series, "test", 0);
+        merged.setLevelOfDetailEnabled(true);
+        merged.setDataAreaWidth(4);
+        merged.updateWindow(0, 60);
+
+        final DynamicWindowOHLCDataset fromPyramid = new DynamicWindowOHLCDataset(series, "test", 0);
+        fromPyramid.setLevelOfDetailEnabled(true);
+        fromPyramid.setDataAreaWidth(4);
+        fromPyramid.getColumns().buildPyramid();
+        fromPyramid.updateWindow(0, 60);
+
+        assertEquals(16, fromPyramid.getGroupSize());
+        assertEquals(merged.getItemCount(0), fromPyramid.getItemCount(0));
+        for (int item = 0; item < merged.getItemCount(0); item++) {
+            assertEquals(merged.getXValue(0, item), fromPyramid.getXValue(0, item));
+            assertEquals(merged.getOpenValue(0, item), fromPyramid.getOpenValue(0, item));
+            assertEquals(merged.getHighValue(0, item), fromPyramid.getHighValue(0, item));
+            assertEquals(merged.getLowValue(0, item), fromPyramid.getLowValue(0, item));
+            assertEquals(merged.getCloseValue(0, item), fromPyramid.getCloseValue(0, item));
+            assertEquals(merged.getVolumeValue(0, item), fromPyramid.getVolumeValue(0, item), 1e-9);
+        }
+        assertEquals(31 + 16 + 8 + 4 + 2 + 1, fromPyramid.getColumns().getPyramid().getMemoryBytes() / (5 * Double.BYTES));
+    }
+
+    @Test
+    public void testPreparedWindowIsOnlyShownOnceApplied() {
+        final BarSeries series = createSeries(64);
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "test", 0);
+        dataset.updateWindow(0, 9);
+
+        final IDynamicDataset.PreparedWindow prepared = dataset.prepareWindow(20, 39);
+        assertEquals(10, dataset.getItemCount(0)); // the old window keeps rendering
+        assertEquals(0, dataset.getXValue(0, 0));
+
+        prepared.apply();
+        assertEquals(20, dataset.getItemCount(0));
+        assertEquals(20, dataset.getXValue(0, 0));
+        assertNull(dataset.prepareWindow(20, 39)); // nothing to do for the same range
+    }
+
+    @Test
+    public void testWindowPreparedForAReplacedSeriesIsDropped() {
+        final BarSeries series = createSeries(64);
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "test", 0);
+        final IDynamicDataset.PreparedWindow prepared = dataset.prepareWindow(0, 9);
+
+        dataset.setFullBarSeries(createSeries(32), "other");
+        prepared.apply();
+        assertEquals(0, dataset.getItemCount(0));
+    }
+
+    @Test
+    public void testWindowIsKeptWhileVisibleAndPrefetchedAheadOfThePan() {
+        final BarSeries series = createSeries(1000);
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "test", 10);
+        dataset.updateWindow(100, 199);
+        assertEquals(90, dataset.getXValue(0, 0));
+        assertEquals(120, dataset.getItemCount(0));
+
+        dataset.updateWindow(105, 204); // still inside the loaded window
+        assertEquals(90, dataset.getXValue(0, 0));
+        assertEquals(1, dataset.getWindowHits());
+
+        dataset.setPanVelocity(200); // 200 bars per second towards newer bars -> 100 bars lead
+        dataset.updateWindow(150, 249);
+        assertEquals(140, dataset.getXValue(0, 0));
+        assertEquals(249 + 110, dataset.getXValue(0, dataset.getItemCount(0) - 1));
+
+        dataset.updateWindow(200, 299); // served by the prefetched bars
+        assertEquals(2, dataset.getWindowHits());
+        assertEquals(2, dataset.getWindowMisses());
+    }
+
+    @Test
+    public void testSnapshotKeepsItsValuesWhenANewWindowIsPublished() {
+        final BarSeries series = createSeries(64);
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(series, "test", 0);
+        dataset.updateWindow(10, 20);
+        final DynamicWindowOHLCDataset.Window snapshot = dataset.getWindow();
+
+        dataset.updateWindow(40, 45);
+        assertEquals(6, dataset.getItemCount(0));
+        assertEquals(11, snapshot.getItemCount());
+        assertEquals(10, snapshot.getXValue(0));
+        assertEquals(series.getBar(20).getClosePrice().doubleValue(), snapshot.getCloseValue(10));
+        assertEquals(series.getBar(15).getEndTime().toInstant().toEpochMilli(), snapshot.indexToTimeMillis(15.2));
+
+        dataset.setFullBarSeries(createSeries(32), "other");
+        assertEquals(0, dataset.getWindow().getItemCount());
+        assertEquals(series.getBar(20).getHighPrice().doubleValue(), snapshot.getHighValue(10));
+    }
+
+    @Test
+    public void testPrimitiveGettersDoNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        final DynamicWindowOHLCDataset dataset = new DynamicWindowOHLCDataset(createSeries(4096), "test", 0);
+        dataset.setLevelOfDetailEnabled(true);
+
+        for (double width : new double[]{0, 256}) { // raw bars, then 16 bars per candle
+            dataset.setDataAreaWidth(width);
+            dataset.updateWindow(0, 4095);
+            readAllItems(dataset); // warm up
+            final long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            final double sum = readAllItems(dataset);
+            final long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            assertTrue(sum != 0);
+            assertTrue(allocated < 1024, allocated + " bytes allocated for " + dataset.getItemCount(0) + " items");
+        }
+    }
+
+    private static double readAllItems(DynamicWindowOHLCDataset dataset) {
+        double sum = 0;
+        for (int item = 0; item < dataset.getItemCount(0); item++) {
+            sum += dataset.getXValue(0, item) + dataset.getOpenValue(0, item) + dataset.getHighValue(0, item)
+                    + dataset.getLowValue(0, item) + dataset.getCloseValue(0, item) + dataset.getVolumeValue(0, item);
+        }
+        return sum;
+    }
+}
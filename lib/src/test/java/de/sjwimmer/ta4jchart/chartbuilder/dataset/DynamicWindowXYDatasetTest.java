@@ -0,0 +1,251 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import de.sjwimmer.ta4jchart.chartbuilder.BarSeriesHelper;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.CachedIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.num.NaN;
+import org.ta4j.core.num.Num;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DynamicWindowXYDatasetTest {
+
+    private static BarSeries createSeries(int barCount) {
+        final double[] closes = new double[barCount];
+        for (int i = 0; i < barCount; i++) {
+            closes[i] = 100 + Math.sin(i / 3.0) * 10;
+        }
+        return new BaseBarSeries("test", BarSeriesHelper.createBars(closes));
+    }
+
+    @Test
+    public void testRawValuesWhenBarsFitThePixels() {
+        final BarSeries series = createSeries(64);
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, new ClosePriceIndicator(series), "close", 0);
+        dataset.setDecimationEnabled(true);
+        dataset.setDataAreaWidth(100);
+        dataset.updateWindow(0, 63);
+
+        assertEquals(1, dataset.getGroupSize());
+        assertEquals(64, dataset.getItemCount(0));
+        assertEquals(series.getBar(5).getClosePrice().doubleValue(), dataset.getYValue(0, 5));
+    }
+
+    @Test
+    public void testEachPixelGroupIsReducedToFirstMinMaxLast() {
+        final BarSeries series = createSeries(512);
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, new ClosePriceIndicator(series), "close", 0);
+        dataset.setDecimationEnabled(true);
+        dataset.setDataAreaWidth(16); // 256 bars on 16 pixels -> 16 bars per group
+        dataset.updateWindow(0, 255);
+
+        assertEquals(16, dataset.getGroupSize());
+        assertEquals(16 * 4, dataset.getItemCount(0));
+        for (int group = 0; group < 16; group++) {
+            final int first = group * 16;
+            final int last = first + 15;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = first; i <= last; i++) {
+                min = Math.min(min, series.getBar(i).getClosePrice().doubleValue());
+                max = Math.max(max, series.getBar(i).getClosePrice().doubleValue());
+            }
+            final int item = group * 4;
+            assertEquals(first, dataset.getXValue(0, item));
+            assertEquals(last, dataset.getXValue(0, item + 3));
+            assertTrue(dataset.getXValue(0, item + 1) <= dataset.getXValue(0, item + 2));
+            final double a = dataset.getYValue(0, item + 1);
+            final double b = dataset.getYValue(0, item + 2);
+            assertEquals(min, Math.min(a, b));
+            assertEquals(max, Math.max(a, b));
+        }
+
+        // panning out of the loaded window keeps the points of the groups that stay visible
+        dataset.updateWindow(128, 383);
+        assertEquals(128, dataset.getXValue(0, 0));
+        assertEquals(383, dataset.getXValue(0, dataset.getItemCount(0) - 1));
+    }
+
+    @Test
+    public void testGapInsideAGroupIsKeptAsANaNPoint() {
+        final BarSeries series = createSeries(256);
+        final ClosePriceIndicator close = new ClosePriceIndicator(series);
+        final Indicator<Num> gapped = new CachedIndicator<Num>(series) {
+            @Override
+            protected Num calculate(int index) {
+                return (index >= 20 && index <= 23) ? NaN.NaN : close.getValue(index);
+            }
+
+            @Override
+            public int getUnstableBars() {
+                return 0;
+            }
+        };
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, gapped, "gapped", 0);
+        dataset.setDecimationEnabled(true);
+        dataset.setDataAreaWidth(16); // 16 bars per group, the gap lies inside the second one
+        dataset.updateWindow(0, 255);
+
+        assertEquals(16, dataset.getGroupSize());
+        assertEquals(16, dataset.getXValue(0, 4));
+        assertEquals(31, dataset.getXValue(0, 7));
+        assertTrue(dataset.getXValue(0, 5) <= dataset.getXValue(0, 6));
+        assertTrue(Double.isNaN(dataset.getYValue(0, 5)) || Double.isNaN(dataset.getYValue(0, 6)));
+        for (int item = 0; item < dataset.getItemCount(0); item++) {
+            if (item != 5 && item != 6) {
+                assertFalse(Double.isNaN(dataset.getYValue(0, item)), "item " + item);
+            }
+        }
+    }
+
+    @Test
+    public void testBarsSpanTheirIndexAndDecimatedBarsTheirGroup() {
+        final BarSeries series = createSeries(512);
+        final DynamicWindowBarDataset dataset = new DynamicWindowBarDataset(series, new ClosePriceIndicator(series), "close", 0);
+        dataset.setDecimationEnabled(true);
+        dataset.updateWindow(0, 63);
+
+        assertEquals(64, dataset.getItemCount(0));
+        assertEquals(10 - 0.45, dataset.getStartXValue(0, 10), 1e-9);
+        assertEquals(10 + 0.45, dataset.getEndXValue(0, 10), 1e-9);
+        assertEquals(series.getBar(10).getClosePrice().doubleValue(), dataset.getEndYValue(0, 10));
+
+        dataset.setDataAreaWidth(16); // 16 bars per group
+        dataset.updateWindow(0, 255);
+        for (int item = 0; item < 8; item++) {
+            assertEquals((item / 4) * 16 - 0.45, dataset.getStartXValue(0, item), 1e-9);
+            assertEquals((item / 4) * 16 + 15 + 0.45, dataset.getEndXValue(0, item), 1e-9);
+        }
+    }
+
+    @Test
+    public void testColumnBackedDatasetShowsPlaceholdersUntilComputed() {
+        final BarSeries series = createSeries(64);
+        final IndicatorColumn column = new IndicatorColumn(new ClosePriceIndicator(series));
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, column, "close", 0);
+        dataset.updateWindow(0, 63);
+
+        assertTrue(Double.isNaN(dataset.getYValue(0, 10)));
+        assertEquals("close (loading 0%)", dataset.getSeriesKey(0));
+
+        column.compute(null);
+        dataset.columnProgressed();
+
+        assertEquals(series.getBar(10).getClosePrice().doubleValue(), dataset.getYValue(0, 10));
+        assertEquals("close", dataset.getSeriesKey(0));
+    }
+
+    @Test
+    public void testLiveBarsAreAppendedToTheColumnAndTheWindow() {
+        final BarSeries series = createSeries(64);
+        final IndicatorColumn column = new IndicatorColumn(new ClosePriceIndicator(series));
+        column.compute(null);
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, column, "close", 0);
+        dataset.updateWindow(0, 70);
+        assertEquals(64, dataset.getItemCount(0));
+
+        final Bar last = series.getLastBar();
+        series.addBar(new BaseBar(Duration.ofDays(1), last.getEndTime().plusDays(1), 1, 1, 1, 77, 1));
+        BarSeriesColumns.update(series);
+        column.barsChanged();
+        column.compute(null);
+        assertTrue(column.isComplete());
+        assertEquals(77, column.getValue(64));
+
+        dataset.updateWindow(0, 70);
+        assertEquals(65, dataset.getItemCount(0));
+        assertEquals(77, dataset.getYValue(0, 64));
+        assertEquals(series.getBar(10).getClosePrice().doubleValue(), dataset.getYValue(0, 10));
+
+        series.addBar(new BaseBar(Duration.ofDays(1), last.getEndTime().plusDays(1), 1, 1, 1, 78, 1), true);
+        BarSeriesColumns.update(series);
+        column.barsChanged();
+        column.compute(null);
+        dataset.updateWindow(0, 70);
+        assertEquals(78, dataset.getYValue(0, 64));
+    }
+
+    @Test
+    public void testCappedSeriesKeepsTheLastBarsInTheColumnAndTheWindow() {
+        final BarSeries series = createSeries(64);
+        series.setMaximumBarCount(64);
+        final IndicatorColumn column = new IndicatorColumn(new ClosePriceIndicator(series));
+        column.compute(null);
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, column, "close", 0);
+        dataset.updateWindow(0, 1000);
+
+        for (int i = 0; i < 200; i++) {
+            series.addBar(Duration.ofDays(1), series.getLastBar().getEndTime().plusDays(1), 1, 1, 1, 1000 + i, 1);
+            BarSeriesColumns.update(series);
+            column.barsChanged();
+            column.compute(null);
+        column.compute(null);
+        }
+        assertEquals(200, series.getBeginIndex());
+        assertTrue(column.isComplete());
+        assertTrue(Double.isNaN(column.getValue(199))); // removed from the series
+        assertEquals(1000 + 199, column.getValue(series.getEndIndex()));
+
+        dataset.updateWindow(0, 1000);
+        assertEquals(64, dataset.getItemCount(0));
+        assertEquals(200, dataset.getXValue(0, 0));
+        assertEquals(1000 + 136, dataset.getYValue(0, 0));
+        assertEquals(1000 + 199, dataset.getYValue(0, 63));
+    }
+
+    @Test
+    public void testCappedSeriesSurvivesMoreRemovedBarsThanTheColumnHolds() {
+        final BarSeries series = createSeries(64);
+        series.setMaximumBarCount(64);
+        final IndicatorColumn column = new IndicatorColumn(new ClosePriceIndicator(series));
+        column.compute(null);
+
+        for (int i = 0; i < 200; i++) { // a single update for all of them
+            series.addBar(Duration.ofDays(1), series.getLastBar().getEndTime().plusDays(1), 1, 1, 1, 1000 + i, 1);
+        }
+        BarSeriesColumns.update(series);
+        column.barsChanged();
+        column.compute(null);
+        assertTrue(column.isComplete());
+        assertEquals(1000 + 136, column.getValue(series.getBeginIndex()));
+        assertEquals(1000 + 199, column.getValue(series.getEndIndex()));
+    }
+
+    private static BarSeries createDaySeries(int barCount, int daysPerBar) {
+        final ZonedDateTime start = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        final List<Bar> bars = new ArrayList<>(barCount);
+        for (int i = 0; i < barCount; i++) {
+            final double price = daysPerBar * 100 + i;
+            bars.add(new BaseBar(Duration.ofDays(daysPerBar), start.plusDays((long) (i + 1) * daysPerBar), price, price, price, price, 1));
+        }
+        return new BaseBarSeries("days" + daysPerBar, bars);
+    }
+
+    @Test
+    public void testIndicatorOfAnotherTimeframeIsAlignedAsOfTheCandleClose() {
+        final BarSeries chartSeries = createDaySeries(10, 1);
+        final BarSeries indicatorSeries = createDaySeries(5, 2);
+        final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(chartSeries, new ClosePriceIndicator(indicatorSeries), "close", 0);
+        dataset.updateWindow(0, 9);
+
+        assertTrue(Double.isNaN(dataset.getYValue(0, 0))); // closes before the first two-day bar
+        for (int i = 1; i < 10; i++) {
+            final int indicatorIndex = (i + 1) / 2 - 1; // last two-day bar that closed by day i + 1
+            assertEquals(200 + indicatorIndex, dataset.getYValue(0, i));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import de.sjwimmer.ta4jchart.chartbuilder.BarSeriesHelper;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.CachedIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.num.Num;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IndicatorDependenciesTest {
+
+    private static BarSeries createSeries() {
+        return new BaseBarSeries("test", BarSeriesHelper.createBars(new double[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test
+    public void testIndicatorsSharingASubIndicatorAreGrouped() {
+        final BarSeries series = createSeries();
+        final ClosePriceIndicator close = new ClosePriceIndicator(series);
+        final IndicatorColumn fastEma = new IndicatorColumn(new EMAIndicator(close, 3));
+        final IndicatorColumn otherRsi = new IndicatorColumn(new RSIIndicator(new ClosePriceIndicator(series), 3));
+        final IndicatorColumn slowEma = new IndicatorColumn(new EMAIndicator(close, 5));
+
+        final List<List<IndicatorColumn>> groups = IndicatorDependencies.group(Arrays.asList(fastEma, otherRsi, slowEma));
+
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList(fastEma, slowEma), groups.get(0));
+        assertEquals(Arrays.asList(otherRsi), groups.get(1));
+    }
+
+    @Test
+    public void testSharedDependencyDeepInTheTreeIsFound() {
+        final BarSeries series = createSeries();
+        final EMAIndicator ema = new EMAIndicator(new ClosePriceIndicator(series), 3);
+        final IndicatorColumn rsiOfEma = new IndicatorColumn(new RSIIndicator(ema, 3));
+        final IndicatorColumn emaOfEma = new IndicatorColumn(new EMAIndicator(ema, 2));
+
+        assertEquals(1, IndicatorDependencies.group(Arrays.asList(rsiOfEma, emaOfEma)).size());
+    }
+
+    @Test
+    public void testSubIndicatorsInMapsAndWildcardCollectionsAreFound() {
+        final BarSeries series = createSeries();
+        final ClosePriceIndicator mapped = new ClosePriceIndicator(series);
+        final ClosePriceIndicator listed = new ClosePriceIndicator(series);
+        final IndicatorColumn emaOfMapped = new IndicatorColumn(new EMAIndicator(mapped, 3));
+        final IndicatorColumn container = new IndicatorColumn(new ContainerIndicator(series, mapped, listed));
+        final IndicatorColumn emaOfListed = new IndicatorColumn(new EMAIndicator(listed, 3));
+        final IndicatorColumn other = new IndicatorColumn(new EMAIndicator(new ClosePriceIndicator(series), 3));
+
+        final List<List<IndicatorColumn>> groups = IndicatorDependencies.group(Arrays.asList(emaOfMapped, container, emaOfListed, other));
+
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList(emaOfMapped, container, emaOfListed), groups.get(0));
+        assertEquals(Arrays.asList(other), groups.get(1));
+    }
+
+    /** Keeps its sub-indicators in containers whose declared types do not name them. */
+    private static final class ContainerIndicator extends CachedIndicator<Num> {
+        private final Map<String, Object> byName = new HashMap<>();
+        private final List<?> others;
+
+        ContainerIndicator(BarSeries series, Indicator<Num> mapped, Indicator<Num> listed) {
+            super(series);
+            this.byName.put("mapped", mapped);
+            this.others = Collections.singletonList(listed);
+        }
+
+        @Override
+        protected Num calculate(int index) {
+            return getBarSeries().getBar(index).getClosePrice();
+        }
+
+        @Override
+        public int getUnstableBars() {
+            return 0;
+        }
+    }
+}
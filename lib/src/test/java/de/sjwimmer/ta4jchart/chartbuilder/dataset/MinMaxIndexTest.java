@@ -0,0 +1,71 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.jfree.data.Range;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MinMaxIndexTest {
+
+    private static void assertMatchesScan(MinMaxIndex index, double[] lows, double[] highs, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i <= to; i++) {
+            min = Math.min(min, lows[i]);
+            max = Math.max(max, highs[i]);
+        }
+        assertEquals(new Range(min, max), index.getRange(lows, highs, from, to), "slots " + from + ".." + to);
+    }
+
+    @Test
+    public void testRangesMatchAScanOfTheSlots() {
+        final Random random = new Random(42);
+        final double[] lows = new double[1000];
+        final double[] highs = new double[1000];
+        for (int i = 0; i < lows.length; i++) {
+            lows[i] = random.nextDouble() * 100;
+            highs[i] = lows[i] + random.nextDouble() * 10;
+        }
+        final MinMaxIndex index = new MinMaxIndex(lows.length);
+        index.update(lows, highs, 0, lows.length);
+
+        for (int n = 0; n < 2000; n++) {
+            final int a = random.nextInt(lows.length);
+            final int b = random.nextInt(lows.length);
+            assertMatchesScan(index, lows, highs, Math.min(a, b), Math.max(a, b));
+        }
+        assertMatchesScan(index, lows, highs, 0, lows.length - 1);
+    }
+
+    @Test
+    public void testUpdatedSlotsAreReflected() {
+        final double[] values = new double[100];
+        final MinMaxIndex index = new MinMaxIndex(values.length);
+        for (int size = 1; size <= values.length; size++) { // appended one by one
+            values[size - 1] = size;
+            index.update(values, values, size - 1, size);
+        }
+        assertEquals(new Range(1, 100), index.getRange(values, values, 0, 99));
+
+        values[50] = -5;
+        index.update(values, values, 50, values.length);
+        assertEquals(new Range(-5, 100), index.getRange(values, values, 0, 99));
+        assertEquals(new Range(17, 50), index.getRange(values, values, 16, 49));
+    }
+
+    @Test
+    public void testNaNIsIgnored() {
+        final double[] values = new double[40];
+        Arrays.fill(values, Double.NaN);
+        values[20] = 3;
+        final MinMaxIndex index = new MinMaxIndex(values.length);
+        index.update(values, values, 0, values.length);
+
+        assertEquals(new Range(3, 3), index.getRange(values, values, 0, 39));
+        assertNull(index.getRange(values, values, 0, 19));
+    }
+}
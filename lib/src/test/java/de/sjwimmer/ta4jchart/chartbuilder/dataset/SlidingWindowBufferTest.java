@@ -0,0 +1,58 @@
+package de.sjwimmer.ta4jchart.chartbuilder.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SlidingWindowBufferTest {
+
+    private static final SlidingWindowBuffer.Filler INDEX_FILLER = (target, offset, fromIndex, count) -> {
+        for (int i = 0; i < count; i++) {
+            target[offset + i] = fromIndex + i;
+        }
+    };
+
+    @Test
+    public void testSlideOnlyFillsNewIndices() {
+        SlidingWindowBuffer buffer = SlidingWindowBuffer.EMPTY.slide(100, 50, INDEX_FILLER);
+        assertEquals(50, buffer.getLastFilledCount());
+
+        buffer = buffer.slide(103, 50, INDEX_FILLER); // pan right by 3 bars
+        assertEquals(3, buffer.getLastFilledCount());
+        assertWindow(buffer, 103, 50);
+
+        buffer = buffer.slide(98, 50, INDEX_FILLER); // pan left by 5 bars
+        assertEquals(5, buffer.getLastFilledCount());
+        assertWindow(buffer, 98, 50);
+    }
+
+    @Test
+    public void testSlideGrowsAndShrinks() {
+        SlidingWindowBuffer buffer = SlidingWindowBuffer.EMPTY.slide(10, 10, INDEX_FILLER);
+        buffer = buffer.slide(5, 30, INDEX_FILLER); // zoom out on both sides
+        assertEquals(20, buffer.getLastFilledCount());
+        assertWindow(buffer, 5, 30);
+
+        buffer = buffer.slide(12, 4, INDEX_FILLER); // zoom in
+        assertEquals(0, buffer.getLastFilledCount());
+        assertWindow(buffer, 12, 4);
+
+        buffer = buffer.slide(500, 4, INDEX_FILLER); // jump without overlap
+        assertEquals(4, buffer.getLastFilledCount());
+        assertWindow(buffer, 500, 4);
+    }
+
+    @Test
+    public void testSlideLeavesThePreviousBufferUntouched() {
+        final SlidingWindowBuffer previous = SlidingWindowBuffer.EMPTY.slide(100, 50, INDEX_FILLER);
+        final SlidingWindowBuffer next = previous.slide(120, 50, INDEX_FILLER);
+        assertWindow(previous, 100, 50);
+        assertWindow(next, 120, 50);
+    }
+
+    private static void assertWindow(SlidingWindowBuffer buffer, int start, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(start + i, buffer.get(i));
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package de.sjwimmer.ta4jchart.chartbuilder.listener;
+
+import de.sjwimmer.ta4jchart.chartbuilder.BarSeriesHelper;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowOHLCDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.DynamicWindowXYDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IDynamicDataset;
+import de.sjwimmer.ta4jchart.chartbuilder.dataset.IndicatorColumn;
+import de.sjwimmer.ta4jchart.chartbuilder.mouse.PanAndShiftZoomHandler;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DomainAxisRangeChangeHandlerTest {
+
+    /** @return the chart notifications caused by one batched pan step of a chart with the given number of indicators */
+    private static long notificationsPerPanStep(int indicatorCount) {
+        final double[] closes = new double[1000];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = 100 + i % 17;
+        }
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(closes));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        final XYPlot mainPlot = new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer());
+        plot.add(mainPlot);
+        domainAxis.setRange(0, 99);
+
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+        for (int i = 0; i < indicatorCount; i++) {
+            final DynamicWindowXYDataset dataset = new DynamicWindowXYDataset(series, new ClosePriceIndicator(series), "close" + i, 0);
+            handler.addDataset(dataset);
+            if (i % 2 == 0) {
+                mainPlot.setDataset(i + 1, dataset);
+                mainPlot.setRenderer(i + 1, new XYLineAndShapeRenderer());
+            } else {
+                plot.add(new XYPlot(dataset, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+            }
+        }
+
+        final long before = handler.getChartNotificationCount();
+        handler.runBatch(() -> domainAxis.setRange(50, 149)); // beyond every window: all datasets change
+        handler.getFrameScheduler().flush(); // the frame updating the windows
+        return handler.getChartNotificationCount() - before;
+    }
+
+    @Test
+    public void testBatchedPanStepNotifiesTheChartOnceRegardlessOfIndicatorCount() {
+        assertEquals(1, notificationsPerPanStep(0));
+        assertEquals(1, notificationsPerPanStep(1));
+        assertEquals(1, notificationsPerPanStep(8));
+    }
+
+    @Test
+    public void testAxisMovesWithinAFrameShareOneWindowUpdate() throws Exception {
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(new double[1000]));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        plot.add(new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+
+        final long[] misses = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            misses[0] = handler.getWindowMisses();
+            for (int i = 0; i < 10; i++) {
+                domainAxis.setRange(10 * i, 10 * i + 99);
+            }
+        });
+        awaitFrames(handler.getFrameScheduler(), 1);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(misses[0] + 1, handler.getWindowMisses());
+            assertEquals(90, ohlc.getXValue(0, 0));
+        });
+    }
+
+    @Test
+    public void testPanDragEventsWithinAFrameShareOneWindowUpdate() throws Exception {
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(new double[1000]));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        plot.add(new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+        domainAxis.setRange(500, 599);
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+        final AtomicInteger windowUpdates = new AtomicInteger();
+        handler.addDataset(new IDynamicDataset() { // counts the window updates
+            @Override public void updateWindow(long lower, long upper) { windowUpdates.incrementAndGet(); }
+            @Override public void setFullBarSeries(BarSeries series, String key) { }
+        });
+        final ChartPanel chartPanel = new ChartPanel(new JFreeChart(plot));
+        chartPanel.setSize(400, 300);
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2 = image.createGraphics();
+        chartPanel.paint(g2); // lays out the data area
+        g2.dispose();
+        final PanAndShiftZoomHandler panHandler = new PanAndShiftZoomHandler(chartPanel, null, handler);
+        final int y = (int) chartPanel.getScreenDataArea().getCenterY();
+        final int x = (int) chartPanel.getScreenDataArea().getCenterX();
+        final long[] before = new long[2];
+
+        SwingUtilities.invokeAndWait(() -> {
+            before[0] = windowUpdates.get();
+            before[1] = handler.getChartNotificationCount();
+            panHandler.mousePressed(new MouseEvent(chartPanel, MouseEvent.MOUSE_PRESSED, 0, InputEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1));
+            for (int i = 1; i <= 5; i++) {
+                panHandler.mouseDragged(new MouseEvent(chartPanel, MouseEvent.MOUSE_DRAGGED, 0, InputEvent.BUTTON1_DOWN_MASK, x - 10 * i, y, 0, false, MouseEvent.NOBUTTON));
+            }
+            assertEquals(before[0], windowUpdates.get()); // waiting for the frame
+            assertEquals(before[1], handler.getChartNotificationCount());
+        });
+        awaitFrames(handler.getFrameScheduler(), 1);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(before[0] + 1, windowUpdates.get());
+            assertEquals(before[1] + 1, handler.getChartNotificationCount());
+            assertTrue(domainAxis.getLowerBound() > 500);
+        });
+    }
+
+    @Test
+    public void testFrameSchedulerCoalescesRequestsAndReportsLateFrames() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger frames = new AtomicInteger();
+        final FrameScheduler scheduler = new FrameScheduler(100, tasks -> {
+            frames.incrementAndGet();
+            tasks.run();
+        });
+        final Runnable task = runs::incrementAndGet;
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 0; i < 5; i++) {
+                scheduler.request(task);
+            }
+            scheduler.request(runs::incrementAndGet);
+            sleep(50); // keep the event dispatch thread busy for five frames
+        });
+        awaitFrames(scheduler, 1);
+        assertEquals(2, runs.get());
+        assertEquals(1, frames.get());
+        assertEquals(1, scheduler.getLateFrameCount());
+        assertTrue(scheduler.getDroppedFrameCount() >= 5);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setTargetFrameRate(0));
+    }
+
+    @Test
+    public void testOverlayOnlyFrameDoesNotNotifyTheChart() throws Exception {
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(new double[1000]));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        plot.add(new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+        final FrameScheduler scheduler = handler.getFrameScheduler();
+        final AtomicInteger overlays = new AtomicInteger();
+        final long[] notifications = new long[1];
+
+        SwingUtilities.invokeAndWait(() -> {
+            notifications[0] = handler.getChartNotificationCount();
+            scheduler.requestOverlay(overlays::incrementAndGet);
+        });
+        awaitFrames(scheduler, 1);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(1, overlays.get());
+            assertEquals(notifications[0], handler.getChartNotificationCount());
+            domainAxis.setRange(100, 199); // requests a window update with the next frame
+            scheduler.requestOverlay(overlays::incrementAndGet);
+        });
+        awaitFrames(scheduler, 2);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(2, overlays.get());
+            assertEquals(100, ohlc.getXValue(0, 0));
+            assertTrue(handler.getChartNotificationCount() > notifications[0]);
+        });
+    }
+
+    @Test
+    public void testAsyncLoadingPreparesIndicatorDatasetsOnTheEdt() throws Exception {
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(new double[1000]));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        plot.add(new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+        domainAxis.setRange(0, 99);
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+        handler.setAsyncWindowLoading(true);
+        final Set<Boolean> preparedOnEdt = ConcurrentHashMap.newKeySet();
+        final DynamicWindowXYDataset indicator = new DynamicWindowXYDataset(series, new ClosePriceIndicator(series), "close", 0) {
+            @Override
+            public PreparedWindow prepareWindow(long lowerBound, long upperBound) {
+                preparedOnEdt.add(SwingUtilities.isEventDispatchThread());
+                return super.prepareWindow(lowerBound, upperBound);
+            }
+        };
+        assertFalse(indicator.canPrepareConcurrently());
+
+        SwingUtilities.invokeAndWait(() -> {
+            handler.addDataset(indicator);
+            domainAxis.setRange(500, 599);
+        });
+        final double[] first = new double[1];
+        for (int i = 0; i < 200 && first[0] != 500; i++) {
+            sleep(10);
+            SwingUtilities.invokeAndWait(() -> first[0] = indicator.getItemCount(0) == 0 ? -1 : indicator.getXValue(0, 0));
+        }
+        assertEquals(500, first[0]);
+        assertEquals(Collections.singleton(true), preparedOnEdt);
+    }
+
+    @Test
+    public void testAsyncLoadingReadsTheSeriesOnlyOnTheEdt() throws Exception {
+        final Set<Boolean> readOnEdt = ConcurrentHashMap.newKeySet();
+        final BaseBarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(new double[1000])) {
+            @Override
+            public Bar getBar(int i) {
+                readOnEdt.add(SwingUtilities.isEventDispatchThread());
+                return super.getBar(i);
+            }
+        };
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        final XYPlot mainPlot = new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer());
+        plot.add(mainPlot);
+        final IndicatorColumn column = new IndicatorColumn(new ClosePriceIndicator(series));
+        final DynamicWindowXYDataset indicator = new DynamicWindowXYDataset(series, column, "close", 0);
+        mainPlot.setDataset(1, indicator);
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+        handler.setAsyncWindowLoading(true);
+
+        SwingUtilities.invokeAndWait(() -> {
+            domainAxis.setRange(0, 99);
+            handler.addDataset(indicator);
+            readOnEdt.clear();
+            // A live bar: the columns of the series have to be extended by the next window
+            series.addBar(Duration.ofDays(1), series.getLastBar().getEndTime().plusDays(1), 1, 2, 0.5, 1.5, 10);
+            domainAxis.setRange(901, 1000);
+        });
+        final double[] last = new double[1];
+        for (int i = 0; i < 200 && last[0] != 1000; i++) {
+            sleep(10);
+            SwingUtilities.invokeAndWait(() -> last[0] = ohlc.getXValue(0, ohlc.getItemCount(0) - 1));
+        }
+        assertEquals(1000, last[0]);
+        assertEquals(Collections.singleton(true), readOnEdt);
+    }
+
+    private static void awaitFrames(FrameScheduler scheduler, long frames) throws Exception {
+        final long[] count = new long[1];
+        for (int i = 0; i < 200 && count[0] < frames; i++) {
+            sleep(10);
+            SwingUtilities.invokeAndWait(() -> count[0] = scheduler.getFrameCount());
+        }
+        assertEquals(frames, count[0]);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testWindowsArePreparedInParallelAndPublishedTogether() {
+        final double[] closes = new double[1000];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = 100 + i % 17;
+        }
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(closes));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        final XYPlot mainPlot = new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer());
+        plot.add(mainPlot);
+        domainAxis.setRange(0, 99);
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        handler.setWindowPreparationThreads(4);
+        domainAxis.addChangeListener(handler);
+
+        final List<DynamicWindowXYDataset> datasets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final IndicatorColumn column = new IndicatorColumn(new ClosePriceIndicator(series));
+            column.compute(null);
+            final DynamicWindowXYDataset dataset = (i == 0) // computes its values while preparing: not in parallel
+                    ? new DynamicWindowXYDataset(series, new ClosePriceIndicator(series), "close" + i, 0)
+                    : new DynamicWindowXYDataset(series, column, "close" + i, 0);
+            mainPlot.setDataset(i + 1, dataset);
+            mainPlot.setRenderer(i + 1, new XYLineAndShapeRenderer());
+            handler.addDataset(dataset);
+            datasets.add(dataset);
+        }
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 8; i++) {
+            handler.addDataset(new IDynamicDataset() { // records the threads preparing windows
+                @Override public void updateWindow(long lower, long upper) { }
+                @Override public void setFullBarSeries(BarSeries series, String key) { }
+                @Override public boolean canPrepareConcurrently() { return true; }
+                @Override public PreparedWindow prepareWindow(long lower, long upper) {
+                    threads.add(Thread.currentThread());
+                    sleep(20);
+                    return null;
+                }
+            });
+        }
+
+        final long before = handler.getChartNotificationCount();
+        handler.runBatch(() -> domainAxis.setRange(500, 599));
+        handler.getFrameScheduler().flush();
+        assertEquals(1, handler.getChartNotificationCount() - before);
+        assertTrue(threads.size() > 1, threads.toString());
+        for (DynamicWindowXYDataset dataset : datasets) {
+            assertEquals(500, dataset.getXValue(0, 0));
+            assertEquals(series.getBar(500).getClosePrice().doubleValue(), dataset.getYValue(0, 0));
+        }
+    }
+
+    @Test
+    public void testHiddenDatasetSkipsUpdatesAndCatchesUpWhenShown() {
+        final BarSeries series = new BaseBarSeries("test", BarSeriesHelper.createBars(new double[1000]));
+        final NumberAxis domainAxis = new NumberAxis();
+        final CombinedDomainXYPlot plot = new CombinedDomainXYPlot(domainAxis);
+        final DynamicWindowOHLCDataset ohlc = new DynamicWindowOHLCDataset(series, "test", 0);
+        plot.add(new XYPlot(ohlc, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+        domainAxis.setRange(0, 99);
+        final DomainAxisRangeChangeHandler handler = new DomainAxisRangeChangeHandler(domainAxis, ohlc);
+        domainAxis.addChangeListener(handler);
+        final DynamicWindowXYDataset hidden = new DynamicWindowXYDataset(series, new ClosePriceIndicator(series), "close", 0);
+        plot.add(new XYPlot(hidden, null, new NumberAxis(), new XYLineAndShapeRenderer()));
+        handler.addDataset(hidden);
+        handler.setDatasetVisible(hidden, false);
+
+        for (int i = 1; i <= 5; i++) {
+            final int lower = 100 * i;
+            handler.runBatch(() -> domainAxis.setRange(lower, lower + 99));
+            handler.getFrameScheduler().flush();
+        }
+        assertEquals(500, ohlc.getXValue(0, 0));
+        assertEquals(0, hidden.getXValue(0, 0)); // still the window it had when hidden
+        assertEquals(1, hidden.getWindowMisses());
+
+        final long before = handler.getChartNotificationCount();
+        handler.setDatasetVisible(hidden, true);
+        assertTrue(handler.isDatasetVisible(hidden));
+        assertEquals(500, hidden.getXValue(0, 0));
+        assertEquals(2, hidden.getWindowMisses()); // caught up in one step
+        assertEquals(1, handler.getChartNotificationCount() - before);
+    }
+}
@@ -0,0 +1,66 @@
+package de.sjwimmer.ta4jchart.chartbuilder.listener;
+
+import de.sjwimmer.ta4jchart.chartbuilder.renderer.TacCandlestickRenderer;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.xy.DefaultHighLowDataset;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InteractionQualityTest {
+
+    @Test
+    public void testQualityIsLoweredDuringAGestureAndRestoredAfterIt() throws Exception {
+        final double[] prices = {10, 12, 11, 13, 12};
+        final Date[] dates = new Date[prices.length];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new Date(i);
+        }
+        final DefaultHighLowDataset dataset = new DefaultHighLowDataset("test", dates, prices, prices, prices, prices, new double[prices.length]);
+        final TacCandlestickRenderer renderer = new TacCandlestickRenderer();
+        renderer.setDrawVolume(false);
+        final JFreeChart chart = new JFreeChart(new XYPlot(dataset, new NumberAxis(), new NumberAxis(), renderer));
+        final InteractionQuality[] quality = new InteractionQuality[1];
+
+        SwingUtilities.invokeAndWait(() -> {
+            quality[0] = new InteractionQuality(new ChartPanel(chart));
+            quality[0].setSettleDelay(20);
+            assertThrows(IllegalArgumentException.class, () -> quality[0].setSettleDelay(-1));
+            quality[0].interact();
+            quality[0].interact(); // the same gesture
+            assertTrue(quality[0].isInteracting());
+            assertFalse(chart.getAntiAlias());
+            assertTrue(renderer.isSimplifiedWicks());
+            draw(chart);
+        });
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(() -> {
+            assertFalse(quality[0].isInteracting());
+            assertTrue(chart.getAntiAlias());
+            assertFalse(renderer.isSimplifiedWicks());
+            draw(chart);
+            assertEquals(1, quality[0].getInteractiveFrameCount());
+            assertEquals(1, quality[0].getFullQualityFrameCount());
+            assertTrue(quality[0].getAverageInteractiveFrameMillis() > 0);
+        });
+    }
+
+    private static void draw(JFreeChart chart) {
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle2D.Double(0, 0, 400, 300));
+        g2.dispose();
+    }
+}
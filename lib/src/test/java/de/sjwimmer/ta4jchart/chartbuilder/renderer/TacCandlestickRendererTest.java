@@ -0,0 +1,130 @@
+package de.sjwimmer.ta4jchart.chartbuilder.renderer;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.entity.XYItemEntity;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.ui.RectangleInsets;
+import org.jfree.data.xy.DefaultHighLowDataset;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TacCandlestickRendererTest {
+
+    @Test
+    public void testBatchedCandlesArePaintedInTheirDirectionAndKeepTheirEntities() {
+        final Date[] dates = new Date[10];
+        final double[] open = new double[10];
+        final double[] high = new double[10];
+        final double[] low = new double[10];
+        final double[] close = new double[10];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new Date(i);
+            final boolean up = i % 2 == 0;
+            open[i] = up ? 10 : 20;
+            close[i] = up ? 20 : 10;
+            high[i] = 25;
+            low[i] = 5;
+        }
+        final DefaultHighLowDataset dataset = new DefaultHighLowDataset("test", dates, high, low, open, close, new double[10]);
+        final TacCandlestickRenderer renderer = new TacCandlestickRenderer();
+        renderer.setAutoWidthMethod(TacCandlestickRenderer.WIDTHMETHOD_SMALLEST);
+        renderer.setDrawVolume(false);
+        renderer.setUpPaint(Color.GREEN);
+        renderer.setDownPaint(Color.RED);
+        final NumberAxis domainAxis = new NumberAxis();
+        domainAxis.setRange(-0.5, 9.5);
+        final NumberAxis rangeAxis = new NumberAxis();
+        rangeAxis.setRange(0, 30);
+        final XYPlot plot = new XYPlot(dataset, domainAxis, rangeAxis, renderer);
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setInsets(new RectangleInsets(0, 0, 0, 0));
+        final JFreeChart chart = new JFreeChart(null, null, plot, false);
+
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = image.createGraphics();
+        final ChartRenderingInfo info = new ChartRenderingInfo();
+        chart.draw(g2, new Rectangle2D.Double(0, 0, 400, 300), info);
+        g2.dispose();
+
+        final Rectangle2D dataArea = info.getPlotInfo().getDataArea();
+        final double y = rangeAxis.valueToJava2D(15, dataArea, plot.getRangeAxisEdge());
+        for (int i = 0; i < dates.length; i++) {
+            final double x = domainAxis.valueToJava2D(i, dataArea, plot.getDomainAxisEdge());
+            final Color expected = i % 2 == 0 ? Color.GREEN : Color.RED;
+            assertEquals(expected.getRGB(), image.getRGB((int) x, (int) y), "candle " + i);
+        }
+        int items = 0;
+        for (Object entity : info.getEntityCollection().getEntities()) {
+            if (entity instanceof XYItemEntity) {
+                items++;
+            }
+        }
+        assertEquals(dates.length, items);
+    }
+
+    @Test
+    public void testWicksEndAtTheBodyEdges() {
+        final Date[] dates = {new Date(0), new Date(1)};
+        final double[] open = {10, 20};
+        final double[] close = {20, 10};
+        final double[] high = {28, 28};
+        final double[] low = {2, 2};
+        final DefaultHighLowDataset dataset = new DefaultHighLowDataset("test", dates, high, low, open, close, new double[2]);
+        final TacCandlestickRenderer renderer = new TacCandlestickRenderer();
+        renderer.setDrawVolume(false);
+        renderer.setUpPaint(Color.GREEN);
+        renderer.setDownPaint(Color.RED);
+        renderer.setUseOutlinePaint(true);
+        renderer.setSeriesOutlinePaint(0, Color.BLUE);
+        final NumberAxis domainAxis = new NumberAxis();
+        domainAxis.setRange(-0.5, 1.5);
+        final NumberAxis rangeAxis = new NumberAxis();
+        rangeAxis.setRange(0, 30);
+        final XYPlot plot = new XYPlot(dataset, domainAxis, rangeAxis, renderer);
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setInsets(new RectangleInsets(0, 0, 0, 0));
+        final JFreeChart chart = new JFreeChart(null, null, plot, false);
+        chart.setAntiAlias(false);
+
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = image.createGraphics();
+        final ChartRenderingInfo info = new ChartRenderingInfo();
+        chart.draw(g2, new Rectangle2D.Double(0, 0, 400, 300), info);
+        g2.dispose();
+
+        final Rectangle2D dataArea = info.getPlotInfo().getDataArea();
+        for (int i = 0; i < dates.length; i++) {
+            final int x = (int) domainAxis.valueToJava2D(i, dataArea, plot.getDomainAxisEdge());
+            final Color body = i == 0 ? Color.GREEN : Color.RED;
+            for (double value = 12; value <= 18; value += 1) {
+                final int y = (int) rangeAxis.valueToJava2D(value, dataArea, plot.getRangeAxisEdge());
+                assertEquals(body.getRGB(), image.getRGB(x, y), "body of candle " + i + " at " + value);
+                assertFalse(hasPixel(image, x, y, Color.BLUE), "wick inside the body of candle " + i + " at " + value);
+            }
+            final int upperWick = (int) rangeAxis.valueToJava2D(24, dataArea, plot.getRangeAxisEdge());
+            final int lowerWick = (int) rangeAxis.valueToJava2D(6, dataArea, plot.getRangeAxisEdge());
+            assertTrue(hasPixel(image, x, upperWick, Color.BLUE), "upper wick of candle " + i);
+            assertTrue(hasPixel(image, x, lowerWick, Color.BLUE), "lower wick of candle " + i);
+        }
+    }
+
+    private static boolean hasPixel(BufferedImage image, int x, int y, Color color) {
+        for (int xx = x - 1; xx <= x + 1; xx++) {
+            if (image.getRGB(xx, y) == color.getRGB()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}